@@ -0,0 +1,64 @@
+package com.cristianml.TomeVault.utilities;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Access token validation, the work the JWT filter does on every authenticated request:
+// building the HMAC algorithm and verifier per call, as validateToken used to, against the
+// prebuilt verifiers of the key ring.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+    private static final String ISSUER = "AUTH0JWT-Backend";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "privateKey", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "keyId", "k1");
+        ReflectionTestUtils.setField(jwtUtils, "previousKeys", "");
+        ReflectionTestUtils.setField(jwtUtils, "userGenerator", ISSUER);
+        ReflectionTestUtils.setField(jwtUtils, "accessTokenTtl", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(jwtUtils, "algorithmName", "HS256");
+        jwtUtils.initKeyRing();
+        token = jwtUtils.createToken(new UsernamePasswordAuthenticationToken("reader", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "READ_BOOK", "ADD_BOOK")));
+    }
+
+    @Benchmark
+    public DecodedJWT verifierPerCall() {
+        Algorithm algorithm = Algorithm.HMAC256(SECRET);
+        return JWT.require(algorithm).withIssuer(ISSUER).build().verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT keyRing() {
+        return jwtUtils.validateToken(token);
+    }
+}
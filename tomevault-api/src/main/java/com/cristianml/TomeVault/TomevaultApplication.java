@@ -86,7 +86,7 @@ public class TomevaultApplication {
 	public UserEntity saveUser(UserRepository userRepository, String address, String email,
 							   String firstname, String lastname, LocalDate birthDate,
 							   String username, String password, Set<RoleEntity> roles) {
-		if (userRepository.existsByUsername(username)) {
+		if (userRepository.existsByUsernameIgnoreCase(username)) {
 			throw new IllegalArgumentException("User with username " + username + " already exists.");
 		}
 
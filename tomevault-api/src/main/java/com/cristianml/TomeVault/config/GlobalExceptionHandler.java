@@ -1,6 +1,7 @@
 package com.cristianml.TomeVault.config;
 
 import com.cristianml.TomeVault.exceptions.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -40,6 +41,35 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
     }
 
+    // Handles login attempts with accounts locked after repeated failures
+    @ExceptionHandler(AccountLockedException.class)
+    public ResponseEntity<Map<String, String>> handleAccountLocked(AccountLockedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "Tu cuenta está bloqueada temporalmente por demasiados intentos fallidos. Inténtalo más tarde o contacta al administrador.");
+        error.put("errorCode", "account_locked");
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    }
+
+    // Handles logins rejected by failed-attempt throttling
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<Map<String, String>> handleLoginThrottled(LoginThrottledException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        error.put("errorCode", "too_many_login_attempts");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    // Handles expired, revoked or replayed refresh tokens - client must log in again
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRefreshToken(InvalidRefreshTokenException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "Tu sesión ha expirado. Por favor, inicia sesión de nuevo.");
+        error.put("errorCode", "invalid_refresh_token");
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    }
+
     // Handles illegal arguments in requests - validation errors
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
@@ -65,6 +95,46 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    // Handles Google Books outages when no cached data can be served.
+    @ExceptionHandler(GoogleBooksUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleGoogleBooksUnavailable(GoogleBooksUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        error.put("errorCode", "google_books_unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    // Handles requests rejected to protect the Google Books quota.
+    @ExceptionHandler(GoogleBooksQuotaExceededException.class)
+    public ResponseEntity<Map<String, String>> handleGoogleBooksQuotaExceeded(GoogleBooksQuotaExceededException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        error.put("errorCode", "google_books_rate_limited");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    // Handles book covers Google failed to deliver.
+    @ExceptionHandler(ThumbnailUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleThumbnailUnavailable(ThumbnailUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        error.put("errorCode", "thumbnail_unavailable");
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(error);
+    }
+
+    // Handles logins and password changes shed while the password hashing pool is saturated.
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, String>> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", ex.getMessage());
+        error.put("errorCode", "server_busy");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     // Handles email or username in use.
     public ResponseEntity<Map<String, String>> handleDataIntegrityViolation(
             DataIntegrityViolationException ex) {
@@ -0,0 +1,133 @@
+package com.cristianml.TomeVault.config;
+
+import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
+import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+import com.cristianml.TomeVault.utilities.CacheWeights;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+// In-process caches for Google Books responses.
+// Caffeine evicts with W-TinyLFU, so popular volumes stay resident while one-off lookups are dropped first.
+@Configuration
+public class GoogleBooksCacheConfig {
+
+    // Volume metadata keyed by Google Book ID, bounded by an approximate memory budget in bytes
+    @Bean
+    public Cache<String, GoogleBookItem> googleVolumeCache(
+            @Value("${app.google-books.cache.volume.ttl:12h}") Duration ttl,
+            @Value("${app.google-books.cache.volume.max-bytes:16777216}") long maxBytes,
+            MeterRegistry meterRegistry) {
+        Cache<String, GoogleBookItem> cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(CacheWeights::weigh)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size under cache=googleVolumes
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "googleVolumes");
+        return cache;
+    }
+
+    // Raw search results keyed by normalized query, see GoogleBooksQueries
+    @Bean
+    public Cache<String, List<GoogleBookItem>> googleSearchCache(
+            @Value("${app.google-books.cache.search.ttl:10m}") Duration ttl,
+            @Value("${app.google-books.cache.search.max-bytes:8388608}") long maxBytes,
+            @Value("${app.google-books.cache.search.max-entries:2000}") int maxEntries,
+            MeterRegistry meterRegistry) {
+        long minWeight = minimumWeight(maxBytes, maxEntries);
+        Cache<String, List<GoogleBookItem>> cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, List<GoogleBookItem> items) ->
+                        (int) Math.max(minWeight, CacheWeights.weighItems(key, items)))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "googleSearches");
+        return cache;
+    }
+
+    // Mapped search results, so repeat queries also skip the BookMapper conversion
+    @Bean
+    public Cache<String, List<BookResponseDTO>> bookSearchResultCache(
+            @Value("${app.google-books.cache.search.ttl:10m}") Duration ttl,
+            @Value("${app.google-books.cache.search.max-bytes:8388608}") long maxBytes,
+            @Value("${app.google-books.cache.search.max-entries:2000}") int maxEntries,
+            MeterRegistry meterRegistry) {
+        long minWeight = minimumWeight(maxBytes, maxEntries);
+        Cache<String, List<BookResponseDTO>> cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, List<BookResponseDTO> results) ->
+                        (int) Math.max(minWeight, CacheWeights.weighResults(key, results)))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "bookSearchResults");
+        return cache;
+    }
+
+    // Last known good volumes, kept longer than the fresh cache and only read while
+    // Google is unavailable. Values are shared with googleVolumeCache, not copied.
+    @Bean
+    public Cache<String, GoogleBookItem> googleStaleVolumeCache(
+            @Value("${app.google-books.cache.stale.volume.ttl:7d}") Duration ttl,
+            @Value("${app.google-books.cache.stale.volume.max-bytes:33554432}") long maxBytes,
+            MeterRegistry meterRegistry) {
+        Cache<String, GoogleBookItem> cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(CacheWeights::weigh)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "googleStaleVolumes");
+        return cache;
+    }
+
+    // Last known good search results, served while Google is unavailable
+    @Bean
+    public Cache<String, List<GoogleBookItem>> googleStaleSearchCache(
+            @Value("${app.google-books.cache.stale.search.ttl:6h}") Duration ttl,
+            @Value("${app.google-books.cache.stale.search.max-bytes:16777216}") long maxBytes,
+            MeterRegistry meterRegistry) {
+        Cache<String, List<GoogleBookItem>> cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(CacheWeights::weighItems)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "googleStaleSearches");
+        return cache;
+    }
+
+    // Google Book IDs that recently came back as unknown, so repeated lookups of dead IDs
+    // never reach Google. Short TTL in case a volume appears later.
+    @Bean
+    public Cache<String, Boolean> googleMissingVolumeCache(
+            @Value("${app.google-books.cache.missing.ttl:10m}") Duration ttl,
+            @Value("${app.google-books.cache.missing.max-entries:50000}") long maxEntries,
+            MeterRegistry meterRegistry) {
+        Cache<String, Boolean> cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit} here counts lookups absorbed before any outbound call
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "googleMissingVolumes");
+        return cache;
+    }
+
+    // Caffeine bounds either by size or by weight, not both. Giving every entry at least
+    // maxBytes / maxEntries of weight caps the entry count while still evicting by bytes.
+    private static long minimumWeight(long maxBytes, int maxEntries) {
+        return Math.max(1, maxBytes / Math.max(1, maxEntries));
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.cristianml.TomeVault.config;
+
+import com.cristianml.TomeVault.exceptions.GoogleBooksQuotaExceededException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+
+// Circuit breaker and bulkhead guarding outbound Google Books calls, so an outage or
+// slowdown at Google can't tie up every request thread on our side.
+@Slf4j
+@Configuration
+public class GoogleBooksResilienceConfig {
+
+    public static final String GOOGLE_BOOKS = "googleBooks";
+
+    @Bean
+    public CircuitBreaker googleBooksCircuitBreaker(
+            @Value("${app.google-books.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${app.google-books.circuit-breaker.slow-call-threshold:3s}") Duration slowCallThreshold,
+            @Value("${app.google-books.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${app.google-books.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${app.google-books.circuit-breaker.wait-in-open:30s}") Duration waitInOpen,
+            @Value("${app.google-books.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+            MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(waitInOpen)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // Only Google-side trouble trips the breaker: 5xx, 429, timeouts and I/O errors.
+                // A 404 or an unknown volume ID is a normal answer.
+                .recordException(e -> e instanceof HttpServerErrorException
+                        || e instanceof HttpClientErrorException.TooManyRequests
+                        || e instanceof ResourceAccessException)
+                // Our own quota rejecting the call says nothing about Google, count it neither way
+                .ignoreExceptions(GoogleBooksQuotaExceededException.class)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        // Publishes resilience4j.circuitbreaker.state, .calls and .not.permitted.calls
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(GOOGLE_BOOKS);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Google Books circuit breaker {}", event.getStateTransition());
+            meterRegistry.counter("google.books.circuitbreaker.transitions",
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()).increment();
+        });
+        return circuitBreaker;
+    }
+
+    @Bean
+    public Bulkhead googleBooksBulkhead(
+            @Value("${app.google-books.bulkhead.max-concurrent-calls:20}") int maxConcurrentCalls,
+            @Value("${app.google-books.bulkhead.max-wait:100ms}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build();
+
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        // Publishes resilience4j.bulkhead.available.concurrent.calls and .max.allowed.concurrent.calls
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+
+        Bulkhead bulkhead = registry.bulkhead(GOOGLE_BOOKS);
+        bulkhead.getEventPublisher().onCallRejected(event ->
+                meterRegistry.counter("google.books.bulkhead.rejected").increment());
+        return bulkhead;
+    }
+
+}
@@ -3,6 +3,7 @@ package com.cristianml.TomeVault.controllers;
 import com.cristianml.TomeVault.dtos.requests.UserRegistrationRequestDTO;
 import com.cristianml.TomeVault.security.dtos.AuthLoginRequest;
 import com.cristianml.TomeVault.security.dtos.AuthResponse;
+import com.cristianml.TomeVault.security.dtos.RefreshTokenRequest;
 import com.cristianml.TomeVault.services.IAuthService;
 import com.cristianml.TomeVault.services.impl.AuthServiceImpl;
 import jakarta.validation.Valid;
@@ -31,4 +32,10 @@ public class AuthController {
         AuthResponse authResponse = this.authService.registerUser(userRequestDTO);
         return new ResponseEntity<>(authResponse, HttpStatus.CREATED);
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody @Valid RefreshTokenRequest refreshTokenRequest) {
+        AuthResponse authResponse = this.authService.refreshToken(refreshTokenRequest);
+        return new ResponseEntity<>(authResponse, HttpStatus.OK);
+    }
 }
@@ -1,12 +1,16 @@
 package com.cristianml.TomeVault.controllers;
 
+import com.cristianml.TomeVault.dtos.requests.BookBatchImportRequestDTO;
 import com.cristianml.TomeVault.dtos.requests.BookRequestDTO;
+import com.cristianml.TomeVault.dtos.responses.BookImportResultDTO;
 import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+import com.cristianml.TomeVault.dtos.responses.BookSliceResponseDTO;
 import com.cristianml.TomeVault.exceptions.ResourceNotFoundException;
 import com.cristianml.TomeVault.repositories.BookRepository;
 import com.cristianml.TomeVault.security.config.CustomUserDetails;
 import com.cristianml.TomeVault.services.IBookService;
 import com.cristianml.TomeVault.utilities.Utilities;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -35,7 +39,7 @@ public class BookController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<BookResponseDTO> getBookByGoogleId(@AuthenticationPrincipal CustomUserDetails customUserDetails,
                                                              @PathVariable("googleBookId") String googleBookId) {
-        BookResponseDTO book = this.bookService.getBookByGoogleIdForUser(googleBookId, customUserDetails.getUserEntity());
+        BookResponseDTO book = this.bookService.getBookByGoogleIdForUser(googleBookId, customUserDetails.getUserReference());
         return ResponseEntity.ok(book);
     }
 
@@ -49,7 +53,27 @@ public class BookController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Page<BookResponseDTO>> getBooks(@AuthenticationPrincipal CustomUserDetails customUserDetails,
                                                           Pageable pageable) {
-        Page<BookResponseDTO> books = this.bookService.getBooksByUser(customUserDetails.getUserEntity(), pageable);
+        Page<BookResponseDTO> books = this.bookService.getBooksByUser(customUserDetails.getUserReference(), pageable);
+        return ResponseEntity.ok(books);
+    }
+
+    // Cursor-based listing for infinite scroll: pass back nextCursor to get the following page.
+    // No total count, use GET /books when the client needs page numbers.
+    @GetMapping("/scroll")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<BookSliceResponseDTO> scrollBooks(@AuthenticationPrincipal CustomUserDetails customUserDetails,
+                                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                                            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(this.bookService.getBooksByUserAfter(customUserDetails.getUserReference(), cursor, size));
+    }
+
+    // Full-text search over the authenticated user's library (title, author, description and tags).
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Page<BookResponseDTO>> searchBooks(@AuthenticationPrincipal CustomUserDetails customUserDetails,
+                                                             @RequestParam("q") String query,
+                                                             Pageable pageable) {
+        Page<BookResponseDTO> books = this.bookService.searchBooksByUser(customUserDetails.getUserReference(), query, pageable);
         return ResponseEntity.ok(books);
     }
 
@@ -57,7 +81,7 @@ public class BookController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<BookResponseDTO> addBook(@AuthenticationPrincipal CustomUserDetails customUserDetails,
                                                    @RequestBody BookRequestDTO bookRequestDTO) {
-        BookResponseDTO saved = this.bookService.saveBook(bookRequestDTO, customUserDetails.getUserEntity());
+        BookResponseDTO saved = this.bookService.saveBook(bookRequestDTO, customUserDetails.getUserReference());
         URI location = ServletUriComponentsBuilder.fromCurrentRequest()
                 .path("/{id}")
                 .buildAndExpand(saved.getId())
@@ -70,7 +94,7 @@ public class BookController {
     public ResponseEntity<Object> deleteBook(@AuthenticationPrincipal CustomUserDetails customUserDetails,
                                              @PathVariable("id") Long id) {
         try {
-            this.bookService.deleteBook(id, customUserDetails.getUserEntity());
+            this.bookService.deleteBook(id, customUserDetails.getUserReference());
             return Utilities.generateResponse(HttpStatus.OK, "Book deleted successfully.");
         } catch (ResourceNotFoundException e) {
             return Utilities.generateResponse(HttpStatus.NOT_FOUND, e.getMessage());
@@ -86,7 +110,7 @@ public class BookController {
     public ResponseEntity<BookResponseDTO> updateBook(@AuthenticationPrincipal CustomUserDetails customUserDetails,
                                                       @RequestBody BookRequestDTO requestDTO,
                                                       @PathVariable("id") Long id) {
-        BookResponseDTO updatedBook = this.bookService.updateBook(id, requestDTO, customUserDetails.getUserEntity());
+        BookResponseDTO updatedBook = this.bookService.updateBook(id, requestDTO, customUserDetails.getUserReference());
         return ResponseEntity.ok(updatedBook);
     }
 
@@ -94,10 +118,19 @@ public class BookController {
     @PreAuthorize("hasAnyRole('ADMIN', 'USER', 'SUPER_ADMIN')")
     public ResponseEntity<BookResponseDTO> saveBookFromGoogle(@AuthenticationPrincipal CustomUserDetails customUserDetails,
                                                               @PathVariable("googleBookId") String googleBookId) {
-        BookResponseDTO savedBook = this.bookService.saveBookFromGoogle(googleBookId, customUserDetails.getUserEntity());
+        BookResponseDTO savedBook = this.bookService.saveBookFromGoogle(googleBookId, customUserDetails.getUserReference());
         return ResponseEntity.ok(savedBook);
     }
 
+    // Import several Google volumes in one request, reporting the outcome for each ID.
+    @PostMapping("/from-google/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER', 'SUPER_ADMIN')")
+    public ResponseEntity<List<BookImportResultDTO>> saveBooksFromGoogle(@AuthenticationPrincipal CustomUserDetails customUserDetails,
+                                                                         @RequestBody @Valid BookBatchImportRequestDTO request) {
+        List<BookImportResultDTO> results = this.bookService.saveBooksFromGoogle(request.getGoogleBookIds(), customUserDetails.getUserReference());
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/search-google")
     @PreAuthorize("permitAll()")
     public ResponseEntity<List<BookResponseDTO>> searchBooksFromGoogle(@RequestParam String query) {
@@ -111,7 +144,7 @@ public class BookController {
             @AuthenticationPrincipal CustomUserDetails customUserDetails,
             @PathVariable Long bookId) {
         try {
-            BookResponseDTO updatedBook = this.bookService.incrementBookReadCount(bookId, customUserDetails.getUserEntity());
+            BookResponseDTO updatedBook = this.bookService.incrementBookReadCount(bookId, customUserDetails.getUserReference());
             return ResponseEntity.ok(updatedBook);
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -124,8 +157,12 @@ public class BookController {
     public ResponseEntity<BookResponseDTO> decrementBookReadCount(
             @AuthenticationPrincipal CustomUserDetails customUserDetails,
             @PathVariable Long bookId) {
-        BookResponseDTO updatedBook = this.bookService.decrementBookReadCount(bookId, customUserDetails.getUserEntity());
-        return ResponseEntity.ok(updatedBook);
+        try {
+            BookResponseDTO updatedBook = this.bookService.decrementBookReadCount(bookId, customUserDetails.getUserReference());
+            return ResponseEntity.ok(updatedBook);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     // Reactivate book
@@ -149,7 +186,7 @@ public class BookController {
         try {
             BookResponseDTO bookResponseDTO = this.bookService.activateBook(
                     googleBookId,
-                    customUserDetails.getUserEntity(),
+                    customUserDetails.getUserReference(),
                     keepProgress
             );
             return ResponseEntity.ok(bookResponseDTO);
@@ -165,10 +202,10 @@ public class BookController {
         @PathVariable("googleBookId") String googleBookId) {
 
         // Busca si existe activo
-        boolean existsActive = bookRepository.existsByGoogleBookIdAndUserAndIsActiveTrue(googleBookId, customUserDetails.getUserEntity());
+        boolean existsActive = bookRepository.existsByGoogleBookIdAndUserAndIsActiveTrue(googleBookId, customUserDetails.getUserReference());
 
         // Busca si existe inactivo (eliminado)
-        boolean existsInactive = bookRepository.existsByGoogleBookIdAndUserAndIsActiveFalse(googleBookId, customUserDetails.getUserEntity());
+        boolean existsInactive = bookRepository.existsByGoogleBookIdAndUserAndIsActiveFalse(googleBookId, customUserDetails.getUserReference());
 
         Map<String, Object> response = new HashMap<>();
         response.put("existsActive", existsActive);
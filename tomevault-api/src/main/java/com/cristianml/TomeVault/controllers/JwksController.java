@@ -0,0 +1,32 @@
+package com.cristianml.TomeVault.controllers;
+
+import com.cristianml.TomeVault.utilities.JwtUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+// Publishes the public keys that verify our tokens, so other nodes and proxies
+// can check signatures locally
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtUtils jwtUtils;
+
+    // Keep short enough that a newly published key is picked up before it starts signing
+    @Value("${security.jwt.jwks.max-age:1h}")
+    private Duration maxAge;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .body(jwtUtils.getJwks());
+    }
+}
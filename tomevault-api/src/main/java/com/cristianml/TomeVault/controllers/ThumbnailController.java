@@ -0,0 +1,98 @@
+package com.cristianml.TomeVault.controllers;
+
+import com.cristianml.TomeVault.exceptions.ResourceNotFoundException;
+import com.cristianml.TomeVault.services.IThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/thumbnails")
+@RequiredArgsConstructor
+public class ThumbnailController {
+
+    // Tomcat request attributes for handing a file to the connector's sendfile support
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(30)).cachePublic().getHeaderValue();
+
+    private final IThumbnailService thumbnailService;
+
+    // Serve a book cover through our own origin (public access).
+    @GetMapping("/{googleBookId}")
+    public void getThumbnail(@PathVariable("googleBookId") String googleBookId,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        IThumbnailService.ThumbnailFile file = find(googleBookId, response);
+        if (file == null) {
+            return;
+        }
+        boolean sendfile = Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+
+        // Opened before anything is written: an open file stays readable if it is evicted
+        FileChannel opened = null;
+        if (!sendfile) {
+            try {
+                opened = FileChannel.open(file.path(), StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // Evicted and deleted since it was looked up, fetch it again
+                file = find(googleBookId, response);
+                if (file == null) {
+                    return;
+                }
+                opened = FileChannel.open(file.path(), StandardOpenOption.READ);
+            }
+        }
+
+        try (FileChannel channel = opened) {
+            // Blob names are content hashes, so the ETag changes exactly when the image does
+            String etag = "\"" + file.contentHash() + "\"";
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            response.setContentType(file.contentType());
+            response.setContentLengthLong(file.size());
+
+            if (sendfile) {
+                // Let Tomcat write the file with sendfile once the request completes. Evicted
+                // blobs stay on disk for a grace period, which covers the wait.
+                request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, file.size());
+                return;
+            }
+
+            channel.transferTo(0, file.size(), Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    // Missing covers are a plain 404; Google failures reach GlobalExceptionHandler as 502
+    private IThumbnailService.ThumbnailFile find(String googleBookId, HttpServletResponse response) throws IOException {
+        try {
+            return this.thumbnailService.getThumbnail(googleBookId);
+        } catch (ResourceNotFoundException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        }
+    }
+}
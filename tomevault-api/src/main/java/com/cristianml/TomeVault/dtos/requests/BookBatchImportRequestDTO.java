@@ -0,0 +1,18 @@
+package com.cristianml.TomeVault.dtos.requests;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BookBatchImportRequestDTO {
+
+    @NotEmpty(message = "At least one Google Book ID must be specified")
+    @Size(max = 100, message = "A maximum of 100 books can be imported per request")
+    private List<String> googleBookIds;
+
+}
@@ -0,0 +1,28 @@
+package com.cristianml.TomeVault.dtos.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of importing a single Google volume as part of a batch
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResultDTO {
+
+    public enum Status {
+        IMPORTED,
+        ALREADY_EXISTS,
+        PREVIOUSLY_DELETED,
+        DEMO_LIMIT_EXCEEDED,
+        NOT_FOUND,
+        INVALID_ID,
+        FAILED
+    }
+
+    private String googleBookId;
+    private Status status;
+    private String message;
+    private BookResponseDTO book;
+
+}
@@ -0,0 +1,20 @@
+package com.cristianml.TomeVault.dtos.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of the library in cursor mode. nextCursor is null on the last page.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSliceResponseDTO {
+
+    private List<BookResponseDTO> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+}
@@ -23,4 +23,6 @@ public class UserProfileResponseDTO {
     private boolean enabled;
     private boolean deleted;
     private LocalDateTime deletedAt;
+    // Failed-login lockout still in force, null otherwise
+    private LocalDateTime lockedUntil;
 }
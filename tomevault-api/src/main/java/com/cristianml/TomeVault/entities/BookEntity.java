@@ -22,6 +22,14 @@ public class BookEntity {
 
     @Column(name = "google_book_id", nullable = false)
     private String googleBookId;
+
+    // Shared Google metadata. When set, author, description and thumbnail below only hold the
+    // user's own overrides: null follows the catalog and "" is a value the user cleared.
+    // The tags below replace the catalog's only when tagsOverridden is set.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "catalog_volume_id")
+    private CatalogVolumeEntity volume;
+
     @Column(nullable = false)
     private String title;
     @Column(nullable = true, length = 1000)
@@ -36,12 +44,14 @@ public class BookEntity {
     @Column(name = "tag")
     private List<String> tags;
 
+    @Column(name = "tags_overridden", nullable = false)
+    private boolean tagsOverridden;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     private UserEntity user;
 
-    @Column(name = "added_at")
+    @Column(name = "added_at", nullable = false)
     private LocalDate addedAt;
 
     @Column(name = "finished_at")
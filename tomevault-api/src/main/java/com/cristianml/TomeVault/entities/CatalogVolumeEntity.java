@@ -0,0 +1,43 @@
+package com.cristianml.TomeVault.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Shared Google Books metadata, stored once per volume and referenced by every user's BookEntity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+
+@Entity
+@Table(name = "catalog_volumes")
+public class CatalogVolumeEntity {
+
+    @Id
+    @Column(name = "google_book_id")
+    private String googleBookId;
+
+    @Column(nullable = false)
+    private String title;
+    @Column(length = 1000)
+    private String author;
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    @Column(length = 1000)
+    private String thumbnail;
+
+    // Stored as a Postgres text[] so loading a volume never needs a second query
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "tags", columnDefinition = "text[]")
+    private List<String> tags;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+}
@@ -46,6 +46,9 @@ public class UserEntity {
     private boolean deleted;
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
+    // Set after repeated failed logins, password logins are refused until then
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
 
     @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
     @JoinTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id") ,
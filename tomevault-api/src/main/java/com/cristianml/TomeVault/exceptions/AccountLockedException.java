@@ -0,0 +1,15 @@
+package com.cristianml.TomeVault.exceptions;
+
+import org.springframework.security.core.AuthenticationException;
+
+public class AccountLockedException extends AuthenticationException {
+
+    public AccountLockedException() {
+        super("User account is locked.");
+    }
+
+    public AccountLockedException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.cristianml.TomeVault.exceptions;
+
+public class GoogleBooksQuotaExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public GoogleBooksQuotaExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
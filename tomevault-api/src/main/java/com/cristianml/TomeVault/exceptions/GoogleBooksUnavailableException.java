@@ -0,0 +1,13 @@
+package com.cristianml.TomeVault.exceptions;
+
+public class GoogleBooksUnavailableException extends RuntimeException {
+
+    public GoogleBooksUnavailableException(String message) {
+        super(message);
+    }
+
+    public GoogleBooksUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
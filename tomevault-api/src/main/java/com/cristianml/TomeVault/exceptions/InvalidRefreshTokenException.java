@@ -0,0 +1,9 @@
+package com.cristianml.TomeVault.exceptions;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.cristianml.TomeVault.exceptions;
+
+// A cover that should exist but could not be fetched from Google right now
+public class ThumbnailUnavailableException extends RuntimeException {
+
+    public ThumbnailUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
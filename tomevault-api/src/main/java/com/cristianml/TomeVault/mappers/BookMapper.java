@@ -1,89 +1,132 @@
 package com.cristianml.TomeVault.mappers;
 
 import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
+import com.cristianml.TomeVault.dtos.google.ImageLinks;
+import com.cristianml.TomeVault.dtos.google.VolumeInfo;
 import com.cristianml.TomeVault.dtos.requests.BookRequestDTO;
 import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
 import com.cristianml.TomeVault.entities.BookEntity;
-import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
+import com.cristianml.TomeVault.repositories.BookRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.regex.Pattern;
 
+// Conversiones escritas a mano: sin reflexión, cada campo se copia de forma explícita.
 @Component
-@RequiredArgsConstructor
 public class BookMapper {
 
-    private final ModelMapper modelMapper;
-
-    // Configuración personalizada de mapeos después de la construcción del bean.
-    @PostConstruct
-    public void configureMappings() {
-        // Mapeo especial de GoogleBookItem a BookEntity.
-        modelMapper.typeMap(GoogleBookItem.class, BookEntity.class)
-                .addMappings(mapper -> {
-                    // Mapea el ID de GoogleBookItem al googleBookId de BookEntity.
-                    mapper.map(GoogleBookItem::getId, BookEntity::setGoogleBookId);
-
-                    // Mapea el título, manejando el caso donde getVolumeInfo() podría ser nulo.
-                    mapper.map(src -> Optional.ofNullable(src.getVolumeInfo())
-                                    .map(v -> v.getTitle())
-                                    .orElse(null), // Si es nulo, el título será null.
-                            BookEntity::setTitle);
-
-                    // Mapea los autores, manejando nulos en VolumeInfo y en la lista de autores.
-                    // Si la lista de autores está vacía, String.join devolverá una cadena vacía.
-                    mapper.map(src -> Optional.ofNullable(src.getVolumeInfo())
-                                    .map(v -> v.getAuthors())
-                                    .filter(authors -> authors != null && !authors.isEmpty()) // Asegura que la lista no sea nula ni vacía
-                                    .map(authors -> String.join(", ", authors))
-                                    .orElse(null), // Si es nulo o vacío, el autor será null.
-                            BookEntity::setAuthor);
-
-                    // Mapea la descripción, manejando el caso donde getVolumeInfo() podría ser nulo.
-                    mapper.map(src -> Optional.ofNullable(src.getVolumeInfo())
-                                    .map(v -> v.getDescription())
-                                    .orElse(null),
-                            BookEntity::setDescription);
-
-                    // Mapea el thumbnail, manejando nulos en VolumeInfo e ImageLinks.
-                    mapper.map(src -> Optional.ofNullable(src.getVolumeInfo())
-                                    .map(v -> v.getImageLinks())
-                                    .map(il -> il.getThumbnail())
-                                    .orElse(null), // Si es nulo, el thumbnail será null.
-                            BookEntity::setThumbnail);
-
-                    // Mapea las categorías a tags, manejando nulos en VolumeInfo y en la lista de categorías.
-                    mapper.map(src -> Optional.ofNullable(src.getVolumeInfo())
-                                    .map(v -> v.getCategories())
-                                    .filter(categories -> categories != null && !categories.isEmpty()) // Asegura que la lista no sea nula ni vacía
-                                    .orElse(null), // Si es nulo o vacío, los tags serán null.
-                            BookEntity::setTags)
-                    ;
-
-                    // Ignora el mapeo de estos campos desde GoogleBookItem, ya que se gestionan por separado.
-                    mapper.skip(BookEntity::setId);
-                    mapper.skip(BookEntity::setUser);
-                    mapper.skip(BookEntity::setFinishedAt);
-                    // Considera también saltar createdAt y updatedAt si no vienen de GoogleBookItem
-                    mapper.skip(BookEntity::setAddedAt);
-                    mapper.skip(BookEntity::setReadCount);
-                    mapper.skip(BookEntity::setActive);
-                    // mapper.skip(BookEntity::setUpdatedAt);
-                });
-    }
+    private static final Pattern GOOGLE_THUMBNAIL = Pattern.compile("^https?://books\\.(google|googleusercontent)\\.com/.*");
+
+    // Si está activo, las portadas de Google se sirven a través de /thumbnails.
+    @Value("${app.thumbnails.proxy-enabled:false}")
+    private boolean thumbnailProxyEnabled;
+
+    @Value("${app.thumbnails.base-url:/api/v1/thumbnails}")
+    private String thumbnailBaseUrl;
 
     // Convierte un BookRequestDTO a BookEntity.
     public BookEntity toEntity(BookRequestDTO dto) {
-        return modelMapper.map(dto, BookEntity.class);
+        BookEntity entity = new BookEntity();
+        entity.setGoogleBookId(dto.getGoogleBookId());
+        entity.setTitle(dto.getTitle());
+        entity.setAuthor(dto.getAuthor());
+        entity.setDescription(dto.getDescription());
+        entity.setThumbnail(dto.getThumbnail());
+        entity.setTags(copyOf(dto.getTags()));
+        entity.setAddedAt(dto.getAddedAt());
+        entity.setFinishedAt(dto.getFinishedAt());
+        // Sin valor se mantiene el 0 inicial para que los incrementos en SQL funcionen.
+        if (dto.getReadCount() != null) {
+            entity.setReadCount(dto.getReadCount());
+        }
+        entity.setActive(dto.isActive());
+        return entity;
     }
 
     // Convierte un BookEntity a BookResponseDTO.
+    // Los campos propios del libro son personalizaciones del usuario; si son null se usan
+    // los metadatos compartidos del catálogo y "" es un valor que el usuario borró.
     public BookResponseDTO toResponseDTO(BookEntity bookEntity) {
-        return modelMapper.map(bookEntity, BookResponseDTO.class);
+        BookResponseDTO dto = new BookResponseDTO();
+        dto.setId(bookEntity.getId());
+        dto.setGoogleBookId(bookEntity.getGoogleBookId());
+        dto.setTitle(bookEntity.getTitle());
+        dto.setAddedAt(bookEntity.getAddedAt());
+        dto.setFinishedAt(bookEntity.getFinishedAt());
+        dto.setReadCount(bookEntity.getReadCount());
+        dto.setActive(bookEntity.isActive());
+        CatalogVolumeEntity volume = bookEntity.getVolume();
+        if (volume == null) {
+            dto.setAuthor(bookEntity.getAuthor());
+            dto.setDescription(bookEntity.getDescription());
+            dto.setThumbnail(bookEntity.getThumbnail());
+            dto.setTags(copyOf(bookEntity.getTags()));
+        } else {
+            if (dto.getTitle() == null) {
+                dto.setTitle(volume.getTitle());
+            }
+            dto.setAuthor(overridden(bookEntity.getAuthor(), volume.getAuthor()));
+            dto.setDescription(overridden(bookEntity.getDescription(), volume.getDescription()));
+            dto.setThumbnail(overridden(bookEntity.getThumbnail(), volume.getThumbnail()));
+            dto.setTags(bookEntity.isTagsOverridden() ? copyOf(bookEntity.getTags()) : volume.getTags());
+            // Solo los libros guardados usan el proxy; los resultados de búsqueda no están en el catálogo.
+            if (bookEntity.getId() != null && bookEntity.getThumbnail() == null) {
+                dto.setThumbnail(proxiedThumbnail(dto.getGoogleBookId(), dto.getThumbnail()));
+            }
+        }
+        return dto;
+    }
+
+    // Convierte una fila de tarjeta del listado a BookResponseDTO, sin descripción.
+    // Misma regla que toResponseDTO; un libro sin volumen no tiene título de catálogo.
+    public BookResponseDTO toCardDTO(BookRepository.BookCard card, List<String> tags) {
+        boolean catalogBacked = card.getCatalogTitle() != null;
+        BookResponseDTO dto = new BookResponseDTO();
+        dto.setId(card.getId());
+        dto.setGoogleBookId(card.getGoogleBookId());
+        dto.setTitle(card.getTitle() != null ? card.getTitle() : card.getCatalogTitle());
+        if (catalogBacked) {
+            dto.setAuthor(overridden(card.getAuthor(), card.getCatalogAuthor()));
+            dto.setThumbnail(card.getThumbnail() == null
+                    ? proxiedThumbnail(card.getGoogleBookId(), card.getCatalogThumbnail())
+                    : overridden(card.getThumbnail(), null));
+        } else {
+            dto.setAuthor(card.getAuthor());
+            dto.setThumbnail(card.getThumbnail());
+        }
+        dto.setTags(!catalogBacked || Boolean.TRUE.equals(card.getTagsOverridden()) ? tags : card.getCatalogTags());
+        dto.setAddedAt(card.getAddedAt());
+        dto.setFinishedAt(card.getFinishedAt());
+        dto.setReadCount(card.getReadCount());
+        dto.setActive(Boolean.TRUE.equals(card.getActive()));
+        return dto;
+    }
+
+    // Valor propio sobre el del catálogo; "" es un valor que el usuario borró.
+    private static String overridden(String own, String catalogValue) {
+        if (own == null) {
+            return catalogValue;
+        }
+        return own.isEmpty() ? null : own;
+    }
+
+    // Reemplaza la URL de Google por la del proxy de portadas. Solo para la portada del catálogo,
+    // que es la que sirve el proxy; las URLs propias del usuario no se tocan.
+    private String proxiedThumbnail(String googleBookId, String thumbnail) {
+        if (!thumbnailProxyEnabled || googleBookId == null || thumbnail == null) {
+            return thumbnail;
+        }
+        if (!GOOGLE_THUMBNAIL.matcher(thumbnail).matches()) {
+            return thumbnail;
+        }
+        return thumbnailBaseUrl + "/" + googleBookId;
     }
 
     // Convierte una lista de BookEntity a una lista de BookResponseDTO.
@@ -94,9 +137,52 @@ public class BookMapper {
     }
 
     // Convierte un GoogleBookItem a BookEntity.
+    // Fecha, contador, estado, usuario y volumen del catálogo se asignan en el servicio.
     public BookEntity toEntity(GoogleBookItem googleBookItem) {
-        // Este mapeo utiliza la configuración definida en configureMappings().
-        return modelMapper.map(googleBookItem, BookEntity.class);
+        VolumeInfo info = googleBookItem.getVolumeInfo();
+        BookEntity entity = new BookEntity();
+        entity.setGoogleBookId(googleBookItem.getId());
+        if (info != null) {
+            entity.setTitle(info.getTitle());
+            entity.setAuthor(joinAuthors(info.getAuthors()));
+            entity.setDescription(info.getDescription());
+            entity.setThumbnail(thumbnailOf(info));
+            entity.setTags(tagsOf(info));
+        }
+        return entity;
+    }
+
+    // Convierte un resultado de Google directamente a BookResponseDTO, sin pasar por la entidad.
+    // Da el mismo resultado que toResponseDTO(toEntity(item)) para un libro sin guardar.
+    public BookResponseDTO toResponseDTO(GoogleBookItem googleBookItem) {
+        VolumeInfo info = googleBookItem.getVolumeInfo();
+        BookResponseDTO dto = new BookResponseDTO();
+        dto.setGoogleBookId(googleBookItem.getId());
+        dto.setReadCount(0);
+        if (info != null) {
+            dto.setTitle(info.getTitle());
+            dto.setAuthor(joinAuthors(info.getAuthors()));
+            dto.setDescription(info.getDescription());
+            dto.setThumbnail(thumbnailOf(info));
+            dto.setTags(tagsOf(info));
+        }
+        return dto;
+    }
+
+    // Convierte un GoogleBookItem a un volumen del catálogo compartido.
+    public CatalogVolumeEntity toCatalogVolume(GoogleBookItem googleBookItem) {
+        VolumeInfo info = googleBookItem.getVolumeInfo();
+        String author = info == null ? null : joinAuthors(info.getAuthors());
+        return CatalogVolumeEntity.builder()
+                .googleBookId(googleBookItem.getId())
+                .title(info == null ? null : info.getTitle())
+                // Autor por defecto si Google no devuelve ninguno.
+                .author(author == null || author.isBlank() ? "Autor desconocido" : author)
+                .description(info == null ? null : info.getDescription())
+                .thumbnail(info == null ? null : thumbnailOf(info))
+                .tags(info == null ? null : tagsOf(info))
+                .fetchedAt(LocalDateTime.now(ZoneId.of("UTC")))
+                .build();
     }
 
     // Convierte una Page de BookEntity a una Page de BookResponseDTO.
@@ -106,6 +192,37 @@ public class BookMapper {
 
     // Actualiza una entidad existente a partir de un DTO.
     public void updateFromDTO(BookResponseDTO dto, BookEntity entity) {
-        modelMapper.map(dto, entity);
+        entity.setId(dto.getId());
+        entity.setGoogleBookId(dto.getGoogleBookId());
+        entity.setTitle(dto.getTitle());
+        entity.setAuthor(dto.getAuthor());
+        entity.setDescription(dto.getDescription());
+        entity.setThumbnail(dto.getThumbnail());
+        entity.setTags(copyOf(dto.getTags()));
+        entity.setAddedAt(dto.getAddedAt());
+        entity.setFinishedAt(dto.getFinishedAt());
+        entity.setReadCount(dto.getReadCount());
+        entity.setActive(dto.isActive());
+    }
+
+    // Varios autores se muestran separados por comas; sin autores queda null.
+    private static String joinAuthors(List<String> authors) {
+        return authors == null || authors.isEmpty() ? null : String.join(", ", authors);
+    }
+
+    private static String thumbnailOf(VolumeInfo info) {
+        ImageLinks imageLinks = info.getImageLinks();
+        return imageLinks == null ? null : imageLinks.getThumbnail();
+    }
+
+    // Las categorías de Google se guardan como tags; una lista vacía queda null.
+    private static List<String> tagsOf(VolumeInfo info) {
+        List<String> categories = info.getCategories();
+        return categories == null || categories.isEmpty() ? null : new ArrayList<>(categories);
+    }
+
+    // Copia propia para no compartir la colección de Hibernate ni la del DTO.
+    private static List<String> copyOf(List<String> values) {
+        return values == null ? null : new ArrayList<>(values);
     }
 }
\ No newline at end of file
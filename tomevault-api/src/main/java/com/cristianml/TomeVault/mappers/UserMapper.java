@@ -5,82 +5,67 @@ import com.cristianml.TomeVault.dtos.requests.UserProfileUpdateRequestDTO;
 import com.cristianml.TomeVault.dtos.requests.UserRegistrationRequestDTO;
 import com.cristianml.TomeVault.dtos.responses.UserProfileResponseDTO;
 import com.cristianml.TomeVault.entities.UserEntity;
-import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.stream.Collectors;
 
+// Hand-written conversions. Id, password, roles and account flags are never copied from
+// requests; the services set them explicitly.
 @Component
-@RequiredArgsConstructor
 public class UserMapper {
 
-    private final ModelMapper modelMapper;
-
-    // Custom configuration for modelMapper
-    @PostConstruct
-    public void configureMappings() {
-        // Configuration for UserRegistrationRequestDTO to UserEntity
-        modelMapper.typeMap(UserRegistrationRequestDTO.class, UserEntity.class)
-                .addMappings(mapper -> {
-                   mapper.skip(UserEntity::setId);
-                   mapper.skip(UserEntity::setPassword);
-                   mapper.skip(UserEntity::setRoleList);
-                   mapper.skip(UserEntity::setEnabled);
-                   mapper.skip(UserEntity::setAccountNonExpired);
-                   mapper.skip(UserEntity::setAccountNonLocked);
-                   mapper.skip(UserEntity::setCredentialsNonExpired);
-                });
-
-        // Configuration for UserProfileUpdateRequestDTO to UserEntity
-        modelMapper.typeMap(UserProfileUpdateRequestDTO.class, UserEntity.class)
-                .addMappings(mapper -> {
-                    mapper.skip(UserEntity::setId);
-                    mapper.skip(UserEntity::setPassword);
-                    mapper.skip(UserEntity::setRoleList);
-                    mapper.skip(UserEntity::setEnabled);
-                    mapper.skip(UserEntity::setAccountNonExpired);
-                    mapper.skip(UserEntity::setAccountNonLocked);
-                    mapper.skip(UserEntity::setCredentialsNonExpired);
-                });
-        // Configuration for UserCreateRequestDTO to UserEntity (for admin operations)
-        modelMapper.typeMap(UserCreateRequestDTO.class, UserEntity.class)
-                .addMappings(mapper -> {
-                    mapper.skip(UserEntity::setId);
-                    mapper.skip(UserEntity::setPassword);
-                    mapper.skip(UserEntity::setRoleList);
-                    mapper.skip(UserEntity::setEnabled);
-                    mapper.skip(UserEntity::setAccountNonExpired);
-                    mapper.skip(UserEntity::setAccountNonLocked);
-                    mapper.skip(UserEntity::setCredentialsNonExpired);
-                });
-        // Configuration for UserEntity to UserProfileResponseDTO with custom role mapping
-        modelMapper.typeMap(UserEntity.class, UserProfileResponseDTO.class)
-                .addMappings(mapper -> {
-                   mapper.skip(UserProfileResponseDTO::setRoles);
-                });
-
-    }
-
     // to entity from registration
-    public UserEntity toEntity(UserRegistrationRequestDTO  requestDTO) {
-        return modelMapper.map(requestDTO, UserEntity.class);
+    public UserEntity toEntity(UserRegistrationRequestDTO requestDTO) {
+        UserEntity user = new UserEntity();
+        user.setUsername(requestDTO.getUsername());
+        user.setEmail(requestDTO.getEmail());
+        user.setFirstname(requestDTO.getFirstname());
+        user.setLastname(requestDTO.getLastname());
+        user.setAddress(requestDTO.getAddress());
+        user.setBirthDate(requestDTO.getBirthDate());
+        return user;
     }
 
     // to entity from admin create request
     public UserEntity toEntity(UserCreateRequestDTO userCreateRequestDTO) {
-        return modelMapper.map(userCreateRequestDTO, UserEntity.class);
+        UserEntity user = new UserEntity();
+        user.setUsername(userCreateRequestDTO.getUsername());
+        user.setEmail(userCreateRequestDTO.getEmail());
+        user.setFirstname(userCreateRequestDTO.getFirstname());
+        user.setLastname(userCreateRequestDTO.getLastname());
+        user.setAddress(userCreateRequestDTO.getAddress());
+        user.setBirthDate(userCreateRequestDTO.getBirthDate());
+        return user;
     }
 
     // Maps a UserProfileUpdateRequestDTO to an existing UserEntity.
+    // The profile form sends every field, so a null clears the stored value.
     public void updateEntityFromDto(UserProfileUpdateRequestDTO updateRequestDTO, UserEntity existingUser) {
-        modelMapper.map(updateRequestDTO, existingUser);
+        existingUser.setUsername(updateRequestDTO.getUsername());
+        existingUser.setEmail(updateRequestDTO.getEmail());
+        existingUser.setFirstname(updateRequestDTO.getFirstname());
+        existingUser.setLastname(updateRequestDTO.getLastname());
+        existingUser.setAddress(updateRequestDTO.getAddress());
+        existingUser.setBirthDate(updateRequestDTO.getBirthDate());
     }
 
     // toProfileResponse
     public UserProfileResponseDTO toProfileResponse(UserEntity user) {
-        UserProfileResponseDTO responseDTO = modelMapper.map(user, UserProfileResponseDTO.class);
+        UserProfileResponseDTO responseDTO = new UserProfileResponseDTO();
+        responseDTO.setId(user.getId());
+        responseDTO.setUsername(user.getUsername());
+        responseDTO.setEmail(user.getEmail());
+        responseDTO.setFirstname(user.getFirstname());
+        responseDTO.setLastname(user.getLastname());
+        responseDTO.setAddress(user.getAddress());
+        responseDTO.setBirthDate(user.getBirthDate());
+        responseDTO.setEnabled(user.isEnabled());
+        responseDTO.setDeleted(user.isDeleted());
+        responseDTO.setDeletedAt(user.getDeletedAt());
+        if (user.getLockedUntil() != null && user.getLockedUntil().isAfter(LocalDateTime.now())) {
+            responseDTO.setLockedUntil(user.getLockedUntil());
+        }
 
         // Manually map roles to string set for easy frontend consumption
         if (user.getRoleList() != null) {
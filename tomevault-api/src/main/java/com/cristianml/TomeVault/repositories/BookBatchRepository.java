@@ -0,0 +1,214 @@
+package com.cristianml.TomeVault.repositories;
+
+import com.cristianml.TomeVault.entities.BookEntity;
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Bulk and single-statement writes for books. BookEntity uses IDENTITY ids, which stops
+// Hibernate from batching inserts, so batch imports go through JDBC directly.
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class BookBatchRepository {
+
+    // Inserts a whole import in one statement. Volumes the user already holds are skipped by the
+    // unique idx_books_user_google_book (V8) instead of failing the statement.
+    private static final String INSERT_BOOKS = """
+            INSERT INTO books (google_book_id, title, catalog_volume_id, user_id, added_at, read_count, is_active)
+            SELECT * FROM unnest(CAST(:googleBookIds AS varchar[]), CAST(:titles AS varchar[]),
+                                 CAST(:catalogVolumeIds AS varchar[]), CAST(:userIds AS bigint[]),
+                                 CAST(:addedAts AS date[]), CAST(:readCounts AS int[]), CAST(:isActives AS boolean[]))
+            ON CONFLICT (user_id, google_book_id) DO NOTHING
+            RETURNING id, user_id, google_book_id
+            """;
+
+    private static final String INSERT_BOOK = """
+            INSERT INTO books (google_book_id, title, catalog_volume_id, user_id, added_at, read_count, is_active)
+            VALUES (:googleBookId, :title, :catalogVolumeId, :userId, :addedAt, :readCount, :isActive)
+            ON CONFLICT (user_id, google_book_id) DO NOTHING
+            RETURNING id
+            """;
+
+    // Applies many read counter deltas at once, never going below zero, and returns the stored values
+    private static final String ADD_TO_READ_COUNTS = """
+            UPDATE books b
+            SET read_count = GREATEST(0, COALESCE(b.read_count, 0) + d.delta)
+            FROM unnest(CAST(:ids AS bigint[]), CAST(:deltas AS int[])) AS d(id, delta)
+            WHERE b.id = d.id
+            RETURNING b.id, b.read_count
+            """;
+
+    // Changes one read counter and returns the book as stored, in one statement. target always
+    // returns the row when the book exists, so owner_id tells "not owned" from "already at zero"
+    // when updated is empty. Owner and floor are checked on b, which Postgres re-reads after a
+    // concurrent update, never on the target snapshot.
+    private static final String ADD_TO_READ_COUNT = """
+            WITH target AS (
+                SELECT id, user_id FROM books WHERE id = :bookId
+            ), updated AS (
+                UPDATE books b
+                SET read_count = COALESCE(b.read_count, 0) + :step
+                WHERE b.id = :bookId AND b.user_id = :userId AND COALESCE(b.read_count, 0) + :step >= 0
+                RETURNING b.id, b.google_book_id, b.catalog_volume_id, b.title, b.author, b.description,
+                          b.thumbnail, b.tags_overridden, b.added_at, b.finished_at, b.read_count, b.is_active
+            )
+            SELECT t.user_id AS owner_id, u.*,
+                   v.title AS catalog_title, v.author AS catalog_author, v.description AS catalog_description,
+                   v.thumbnail AS catalog_thumbnail, v.tags AS catalog_tags,
+                   ARRAY(SELECT bt.tag FROM book_tags bt WHERE bt.book_id = u.id) AS tags
+            FROM target t
+            LEFT JOIN updated u ON u.id = t.id
+            LEFT JOIN catalog_volumes v ON v.google_book_id = u.catalog_volume_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Outcome of addToReadCount. book is null when nothing was changed, either because the
+    // user does not own it or because the step would take the counter below zero.
+    public record ReadCountChange(long ownerId, BookEntity book) {
+    }
+
+    // Inserts catalog-backed books and assigns the generated ids back. Books whose volume the
+    // user already holds keep a null id. The whole list goes in one statement; if that fails,
+    // each book is inserted on its own so one bad row only costs its own import. Runs outside
+    // any transaction so those single inserts commit independently. Returns the error of every
+    // book that could not be inserted, by Google Book ID.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, RuntimeException> insertAll(List<BookEntity> books) {
+        if (books.isEmpty()) {
+            return Map.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("googleBookIds", books.stream().map(BookEntity::getGoogleBookId).toArray(String[]::new))
+                .addValue("titles", books.stream().map(BookEntity::getTitle).toArray(String[]::new))
+                .addValue("catalogVolumeIds", books.stream().map(BookBatchRepository::catalogVolumeId).toArray(String[]::new))
+                .addValue("userIds", books.stream().map(book -> book.getUser().getId()).toArray(Long[]::new))
+                .addValue("addedAts", books.stream().map(book -> book.getAddedAt().toString()).toArray(String[]::new))
+                .addValue("readCounts", books.stream().map(BookEntity::getReadCount).toArray(Integer[]::new))
+                .addValue("isActives", books.stream().map(BookEntity::isActive).toArray(Boolean[]::new));
+        try {
+            Map<String, Long> ids = new HashMap<>();
+            jdbcTemplate.query(INSERT_BOOKS, params, (RowCallbackHandler) rs ->
+                    ids.put(rs.getLong("user_id") + "/" + rs.getString("google_book_id"), rs.getLong("id")));
+            for (BookEntity book : books) {
+                book.setId(ids.get(book.getUser().getId() + "/" + book.getGoogleBookId()));
+            }
+            return Map.of();
+        } catch (DataAccessException e) {
+            log.warn("Batch insert of {} books failed, inserting them one by one: {}", books.size(), e.getMessage());
+        }
+
+        Map<String, RuntimeException> failures = new HashMap<>();
+        for (BookEntity book : books) {
+            try {
+                book.setId(insert(book).orElse(null));
+            } catch (DataAccessException e) {
+                failures.put(book.getGoogleBookId(), e);
+            }
+        }
+        return failures;
+    }
+
+    private Optional<Long> insert(BookEntity book) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("googleBookId", book.getGoogleBookId())
+                .addValue("title", book.getTitle())
+                .addValue("catalogVolumeId", catalogVolumeId(book))
+                .addValue("userId", book.getUser().getId())
+                .addValue("addedAt", book.getAddedAt())
+                .addValue("readCount", book.getReadCount())
+                .addValue("isActive", book.isActive());
+        return jdbcTemplate.queryForList(INSERT_BOOK, params, Long.class).stream().findFirst();
+    }
+
+    private static String catalogVolumeId(BookEntity book) {
+        return book.getVolume() == null ? null : book.getVolume().getGoogleBookId();
+    }
+
+    // Single round trip for a whole flush of buffered read counter taps (ReadCountBuffer).
+    // Books that no longer exist are simply missing from the result.
+    @Transactional
+    public Map<Long, Integer> addToReadCounts(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return Map.of();
+        }
+        Long[] ids = deltas.keySet().toArray(Long[]::new);
+        Integer[] values = Arrays.stream(ids).map(deltas::get).toArray(Integer[]::new);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("deltas", values);
+
+        Map<Long, Integer> stored = new HashMap<>();
+        jdbcTemplate.query(ADD_TO_READ_COUNTS, params, (RowCallbackHandler) rs -> stored.put(rs.getLong(1), rs.getInt(2)));
+        return stored;
+    }
+
+    // Write-through read counter tap: empty when the book does not exist.
+    // The returned book is detached, with its catalog volume and tags filled in for the mapper.
+    @Transactional
+    public Optional<ReadCountChange> addToReadCount(Long bookId, Long userId, int step) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("bookId", bookId)
+                .addValue("userId", userId)
+                .addValue("step", step);
+        List<ReadCountChange> rows = jdbcTemplate.query(ADD_TO_READ_COUNT, params, (rs, rowNum) ->
+                new ReadCountChange(rs.getLong("owner_id"), rs.getObject("id") == null ? null : toBook(rs)));
+        return rows.stream().findFirst();
+    }
+
+    private static BookEntity toBook(ResultSet rs) throws SQLException {
+        BookEntity book = new BookEntity();
+        book.setId(rs.getLong("id"));
+        book.setGoogleBookId(rs.getString("google_book_id"));
+        book.setTitle(rs.getString("title"));
+        book.setAuthor(rs.getString("author"));
+        book.setDescription(rs.getString("description"));
+        book.setThumbnail(rs.getString("thumbnail"));
+        book.setTags(toList(rs.getArray("tags")));
+        book.setTagsOverridden(rs.getBoolean("tags_overridden"));
+        book.setAddedAt(toLocalDate(rs.getDate("added_at")));
+        book.setFinishedAt(toLocalDate(rs.getDate("finished_at")));
+        book.setReadCount(rs.getInt("read_count"));
+        book.setActive(rs.getBoolean("is_active"));
+        String volumeId = rs.getString("catalog_volume_id");
+        if (volumeId != null) {
+            book.setVolume(CatalogVolumeEntity.builder()
+                    .googleBookId(volumeId)
+                    .title(rs.getString("catalog_title"))
+                    .author(rs.getString("catalog_author"))
+                    .description(rs.getString("catalog_description"))
+                    .thumbnail(rs.getString("catalog_thumbnail"))
+                    .tags(toList(rs.getArray("catalog_tags")))
+                    .build());
+        }
+        return book;
+    }
+
+    private static List<String> toList(Array array) throws SQLException {
+        return array == null ? null : new ArrayList<>(Arrays.asList((String[]) array.getArray()));
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+}
@@ -4,36 +4,55 @@ import com.cristianml.TomeVault.entities.BookEntity;
 import com.cristianml.TomeVault.entities.UserEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<BookEntity, Long> {
-    Page<BookEntity> findAllByUserAndIsActiveTrue(UserEntity user, Pageable pageable);
+    // Library listing as card rows: the book's own card fields plus the catalog fallbacks,
+    // without either TEXT description. Tags come separately, see findTagsByBookIdIn.
+    String BOOK_CARD_SELECT = "SELECT b.id AS id, b.googleBookId AS googleBookId, " +
+            "b.title AS title, b.author AS author, b.thumbnail AS thumbnail, " +
+            "v.title AS catalogTitle, v.author AS catalogAuthor, v.thumbnail AS catalogThumbnail, v.tags AS catalogTags, " +
+            "b.tagsOverridden AS tagsOverridden, b.addedAt AS addedAt, b.finishedAt AS finishedAt, b.readCount AS readCount, b.isActive AS active " +
+            "FROM BookEntity b LEFT JOIN b.volume v ";
+
+    @Query(value = BOOK_CARD_SELECT + "WHERE b.user = :user AND b.isActive = true",
+            countQuery = "SELECT count(b) FROM BookEntity b WHERE b.user = :user AND b.isActive = true")
+    Page<BookCard> findActiveCardsByUser(@Param("user") UserEntity user, Pageable pageable);
+
+    // Keyset pages of the active books, newest first. Later pages seek past the last row sent
+    // instead of using OFFSET, and a Slice skips the count query. Both are range scans on
+    // idx_books_user_active_added (V5__hot_query_indexes.sql).
+    @Query(BOOK_CARD_SELECT + "WHERE b.user = :user AND b.isActive = true " +
+            "ORDER BY b.addedAt DESC, b.id DESC")
+    Slice<BookCard> findActiveCardsByUserNewestFirst(@Param("user") UserEntity user, Pageable pageable);
+
+    @Query(BOOK_CARD_SELECT + "WHERE b.user = :user AND b.isActive = true " +
+            "AND (b.addedAt, b.id) < (:addedAt, :id) " +
+            "ORDER BY b.addedAt DESC, b.id DESC")
+    Slice<BookCard> findActiveCardsByUserNewestFirstAfter(@Param("user") UserEntity user,
+                                                          @Param("addedAt") LocalDate addedAt,
+                                                          @Param("id") Long id,
+                                                          Pageable pageable);
+
+    // Tags of a whole page of books in one statement instead of one lazy load per book
+    @Query("SELECT b.id AS bookId, t AS tag FROM BookEntity b JOIN b.tags t WHERE b.id IN :bookIds")
+    List<BookTag> findTagsByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
 
     Optional<BookEntity> findByIdAndUser(Long id, UserEntity user);
 
     boolean existsByGoogleBookIdAndUser(String googleBookId, UserEntity user);
     Optional<BookEntity> findByGoogleBookIdAndUser(String googleBookId, UserEntity user);
 
-    // Increment book's read count
-    @Modifying
-    @Transactional
-    @Query("UPDATE BookEntity b SET b.readCount = b.readCount + 1 WHERE b.id = :bookId AND b.user = :user")
-    int incrementReadCount(@Param("bookId") Long bookId, @Param("user") UserEntity user);
-
-    @Modifying
-    @Transactional
-    @Query("UPDATE BookEntity b SET b.readCount = b.readCount - 1 WHERE b.id = :bookId AND b.user = :user AND b.readCount > 0")
-    int decrementReadCount(@Param("bookId") Long bookId, @Param("user") UserEntity user);
-
     Optional<BookEntity> findByGoogleBookIdAndUserAndIsActiveFalse(String googleBookId, UserEntity user);
 
     boolean existsByGoogleBookIdAndUserAndIsActiveTrue(String googleBookId, UserEntity user);
@@ -42,6 +61,57 @@ public interface BookRepository extends JpaRepository<BookEntity, Long> {
 
     long countByUserAndIsActiveTrue(UserEntity user);
 
+    // Active/deleted status of many Google volumes for one user, in a single query
+    @Query("SELECT b.googleBookId AS googleBookId, b.isActive AS active FROM BookEntity b " +
+            "WHERE b.user = :user AND b.googleBookId IN :googleBookIds")
+    List<GoogleBookOwnership> findOwnershipByUserAndGoogleBookIdIn(@Param("user") UserEntity user,
+                                                                  @Param("googleBookIds") Collection<String> googleBookIds);
+
+    // Ranked full-text search over the user's active books as card rows, backed by the GIN index
+    // on books.search_vector (maintained by triggers from V4__full_text_search.sql).
+    // Aliases are quoted so Postgres keeps the case the BookCard getters expect.
+    @Query(value = "SELECT b.id AS \"id\", b.google_book_id AS \"googleBookId\", " +
+            "b.title AS \"title\", b.author AS \"author\", b.thumbnail AS \"thumbnail\", " +
+            "v.title AS \"catalogTitle\", v.author AS \"catalogAuthor\", v.thumbnail AS \"catalogThumbnail\", " +
+            "v.tags AS \"catalogTags\", b.tags_overridden AS \"tagsOverridden\", b.added_at AS \"addedAt\", b.finished_at AS \"finishedAt\", " +
+            "b.read_count AS \"readCount\", b.is_active AS \"active\" " +
+            "FROM books b LEFT JOIN catalog_volumes v ON v.google_book_id = b.catalog_volume_id " +
+            "CROSS JOIN websearch_to_tsquery('simple', :query) q " +
+            "WHERE b.user_id = :userId AND b.is_active = true AND b.search_vector @@ q " +
+            "ORDER BY ts_rank(b.search_vector, q) DESC, b.id",
+            countQuery = "SELECT count(*) FROM books b " +
+                    "WHERE b.user_id = :userId AND b.is_active = true " +
+                    "AND b.search_vector @@ websearch_to_tsquery('simple', :query)",
+            nativeQuery = true)
+    Page<BookCard> searchActiveByUser(@Param("userId") Long userId, @Param("query") String query, Pageable pageable);
+
+    interface GoogleBookOwnership {
+        String getGoogleBookId();
+        Boolean getActive();
+    }
+
+    interface BookCard {
+        Long getId();
+        String getGoogleBookId();
+        String getTitle();
+        String getAuthor();
+        String getThumbnail();
+        String getCatalogTitle();
+        String getCatalogAuthor();
+        String getCatalogThumbnail();
+        List<String> getCatalogTags();
+        Boolean getTagsOverridden();
+        LocalDate getAddedAt();
+        LocalDate getFinishedAt();
+        Integer getReadCount();
+        Boolean getActive();
+    }
+
+    interface BookTag {
+        Long getBookId();
+        String getTag();
+    }
+
     @Query("SELECT DISTINCT b FROM BookEntity b LEFT JOIN FETCH b.tags WHERE b.user = :user ORDER BY b.addedAt ASC")
     List<BookEntity> findAllByUserWithTags(@Param("user") UserEntity user);
 
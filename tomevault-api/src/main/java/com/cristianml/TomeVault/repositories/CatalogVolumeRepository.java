@@ -0,0 +1,9 @@
+package com.cristianml.TomeVault.repositories;
+
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogVolumeRepository extends JpaRepository<CatalogVolumeEntity, String> {
+}
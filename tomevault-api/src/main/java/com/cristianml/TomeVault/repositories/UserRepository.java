@@ -3,21 +3,40 @@ package com.cristianml.TomeVault.repositories;
 import com.cristianml.TomeVault.entities.UserEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     Optional<UserEntity> findUserEntityByUsername(String username);
-    boolean existsByUsername(String username);
-    boolean existsByEmail(String email);
 
-    Optional<UserEntity> findUserEntityByEmail(String email);
+    // Availability checks ignore case, like login does. The unique lower(username) /
+    // lower(email) indexes (V5__hot_query_indexes.sql) back them and catch races.
+    @Query("SELECT count(u) > 0 FROM UserEntity u WHERE LOWER(u.username) = LOWER(:username)")
+    boolean existsByUsernameIgnoreCase(@Param("username") String username);
+
+    @Query("SELECT count(u) > 0 FROM UserEntity u WHERE LOWER(u.email) = LOWER(:email)")
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
+
+    // Resolves a login (username or email, any case) in one statement with roles and permissions
+    // joined in. Each column matches at most one account; if the login is one user's username
+    // and another's email, the username wins.
+    @EntityGraph(attributePaths = {"roleList", "roleList.permissionList"})
+    @Query("SELECT u FROM UserEntity u " +
+            "WHERE LOWER(u.username) = LOWER(:login) OR LOWER(u.email) = LOWER(:login) " +
+            "ORDER BY CASE WHEN LOWER(u.username) = LOWER(:login) THEN 0 ELSE 1 END")
+    List<UserEntity> findAllByLogin(@Param("login") String login);
+
+    default Optional<UserEntity> findByUsernameOrEmail(String login) {
+        return findAllByLogin(login).stream().findFirst();
+    }
     Page<UserEntity> findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCase(String Username, String email, Pageable pageable);
 
 
@@ -0,0 +1,54 @@
+package com.cristianml.TomeVault.security.config;
+
+import com.cristianml.TomeVault.entities.UserEntity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the fields needed to authorize a request.
+ * Built once from a UserEntity and cached by the JWT filter, so authenticated
+ * requests don't reload the user with its roles and permissions every time.
+ */
+public record AuthenticatedUser(Long id,
+                                String username,
+                                String email,
+                                boolean enabled,
+                                boolean deleted,
+                                boolean accountNonExpired,
+                                boolean accountNonLocked,
+                                boolean credentialsNonExpired,
+                                Set<GrantedAuthority> authorities) {
+
+    public AuthenticatedUser {
+        authorities = Set.copyOf(authorities);
+    }
+
+    /**
+     * Copies the user's state and flattens roles and permissions into authorities.
+     */
+    public static AuthenticatedUser from(UserEntity userEntity) {
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        // Add roles to the authorities.
+        userEntity.getRoleList().forEach(role ->
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getRoleEnum().name())));
+
+        // Add permissions to the authorities by flat-mapping roles' permissions.
+        userEntity.getRoleList().stream()
+                .flatMap(roleEntity -> roleEntity.getPermissionList().stream())
+                .forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission.getPermissionEnum().name())));
+
+        return new AuthenticatedUser(
+                userEntity.getId(),
+                userEntity.getUsername(),
+                userEntity.getEmail(),
+                userEntity.isEnabled(),
+                userEntity.isDeleted(),
+                userEntity.isAccountNonExpired(),
+                userEntity.isAccountNonLocked(),
+                userEntity.isCredentialsNonExpired(),
+                authorities);
+    }
+}
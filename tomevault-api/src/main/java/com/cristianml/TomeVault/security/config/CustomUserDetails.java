@@ -1,14 +1,11 @@
 package com.cristianml.TomeVault.security.config;
 
 import com.cristianml.TomeVault.entities.UserEntity;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Wrapper class implementing Spring Security's UserDetails interface,
@@ -16,42 +13,81 @@ import java.util.Set;
  * This allows direct injection of the UserEntity into controllers
  * via the @AuthenticationPrincipal annotation.
  */
-@RequiredArgsConstructor
 public class CustomUserDetails implements UserDetails {
 
-    private final UserEntity userEntity;
+    private final AuthenticatedUser authenticatedUser;
+    private final Supplier<UserEntity> userEntityLoader;
+    private UserEntity userEntity;
+    private UserEntity userReference;
 
     /**
-     * Returns the underlying UserEntity.
+     * Wraps a freshly loaded user, used when authenticating with username and password.
+     */
+    public CustomUserDetails(UserEntity userEntity) {
+        this.authenticatedUser = AuthenticatedUser.from(userEntity);
+        this.userEntity = userEntity;
+        this.userEntityLoader = () -> userEntity;
+    }
+
+    /**
+     * Wraps a cached principal. The full UserEntity is only loaded if a caller asks for it.
+     */
+    public CustomUserDetails(AuthenticatedUser authenticatedUser, Supplier<UserEntity> userEntityLoader) {
+        this.authenticatedUser = authenticatedUser;
+        this.userEntityLoader = userEntityLoader;
+    }
+
+    /**
+     * Returns the underlying UserEntity, loading it on first access.
      * @return The UserEntity associated with these user details.
      */
     public UserEntity getUserEntity() {
+        if (this.userEntity == null) {
+            this.userEntity = this.userEntityLoader.get();
+        }
         return this.userEntity;
     }
 
+    /**
+     * Returns a UserEntity carrying only id, username and email, without touching the database.
+     * Enough to filter or associate rows by owner; use getUserEntity() to read or modify the user.
+     */
+    public UserEntity getUserReference() {
+        if (this.userEntity != null) {
+            return this.userEntity;
+        }
+        if (this.userReference == null) {
+            this.userReference = UserEntity.builder()
+                    .id(authenticatedUser.id())
+                    .username(authenticatedUser.username())
+                    .email(authenticatedUser.email())
+                    .build();
+        }
+        return this.userReference;
+    }
+
+    /**
+     * Returns the authenticated user's id.
+     */
+    public Long getId() {
+        return this.authenticatedUser.id();
+    }
+
     /**
      * Retrieves the authorities (roles and permissions) granted to the user.
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        // Add roles to the authorities.
-        userEntity.getRoleList().forEach(role ->
-                authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getRoleEnum().name())));
-
-        // Add permissions to the authorities by flat-mapping roles' permissions.
-        userEntity.getRoleList().stream()
-                .flatMap(roleEntity -> roleEntity.getPermissionList().stream())
-                .forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission.getPermissionEnum().name())));
-        return authorities;
+        return this.authenticatedUser.authorities();
     }
 
     /**
      * Returns the password used to authenticate the user.
+     * Null for principals rebuilt from a token, which never carry credentials.
      */
     @Override
     public String getPassword() {
-        return this.userEntity.getPassword();
+        return this.userEntity == null ? null : this.userEntity.getPassword();
     }
 
     /**
@@ -59,7 +95,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public String getUsername() {
-        return this.userEntity.getUsername();
+        return this.authenticatedUser.username();
     }
 
     /**
@@ -67,7 +103,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public boolean isAccountNonExpired() {
-        return userEntity.isAccountNonExpired();
+        return authenticatedUser.accountNonExpired();
     }
 
     /**
@@ -75,7 +111,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public boolean isAccountNonLocked() {
-        return userEntity.isAccountNonLocked();
+        return authenticatedUser.accountNonLocked();
     }
 
     /**
@@ -83,7 +119,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public boolean isCredentialsNonExpired() {
-        return userEntity.isCredentialsNonExpired();
+        return authenticatedUser.credentialsNonExpired();
     }
 
     /**
@@ -91,6 +127,6 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public boolean isEnabled() {
-        return userEntity.isEnabled() && !userEntity.isDeleted();
+        return authenticatedUser.enabled() && !authenticatedUser.deleted();
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.cristianml.TomeVault.security.config;
 import com.cristianml.TomeVault.security.config.filter.JwtTokenValidator;
 import com.cristianml.TomeVault.security.services.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -61,9 +62,12 @@ public class SecurityConfig {
                 .authorizeHttpRequests(http -> http
                         .requestMatchers(HttpMethod.HEAD, "/health").permitAll()
                         .requestMatchers(HttpMethod.GET, "/health").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/auth/login", "/auth/sign-up").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/auth/login", "/auth/sign-up", "/auth/refresh").permitAll()
                         .requestMatchers("/books/search-google").permitAll()
                         .requestMatchers("/books/google-api/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/thumbnails/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/user/**").authenticated()
                         .requestMatchers("/admin/users/**").authenticated()
                         .requestMatchers("/books/**").authenticated())
@@ -102,9 +106,13 @@ public class SecurityConfig {
         return provider;
     }
 
+    // Changing the strength rehashes existing passwords on their next login
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     public static void main(String[] args) {
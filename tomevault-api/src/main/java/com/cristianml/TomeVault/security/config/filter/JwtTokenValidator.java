@@ -2,9 +2,10 @@ package com.cristianml.TomeVault.security.config.filter;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import com.cristianml.TomeVault.entities.UserEntity;
 import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.security.config.AuthenticatedUser;
 import com.cristianml.TomeVault.security.config.CustomUserDetails;
+import com.cristianml.TomeVault.security.services.AuthenticatedUserCache;
 import com.cristianml.TomeVault.utilities.JwtUtils;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -31,6 +32,7 @@ public class JwtTokenValidator extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserRepository userRepository; // Usamos directamente el repositorio
+    private final AuthenticatedUserCache authenticatedUserCache; // Avoids reloading the user on every request
 
     /**
      * This method is executed once per HTTP request.
@@ -60,13 +62,16 @@ public class JwtTokenValidator extends OncePerRequestFilter {
             // 5. Extract username from the decoded token.
             String username = jwtUtils.extractUsername(decodedJWT);
 
-            // 6. Load the UserEntity directly from repository
-            UserEntity userEntity = userRepository.findUserEntityByUsername(username)
-                    .or(() -> userRepository.findUserEntityByEmail(username))
-                    .orElseThrow(() -> new RuntimeException("User not found: " + username));
+            // 6. Resolve the principal, from the cache when the user was seen recently
+            AuthenticatedUser authenticatedUser = authenticatedUserCache.get(username);
+            if (authenticatedUser == null) {
+                throw new RuntimeException("User not found: " + username);
+            }
 
-            // 7. Create CustomUserDetails with the UserEntity
-            CustomUserDetails customUserDetails = new CustomUserDetails(userEntity);
+            // 7. Create CustomUserDetails; the full UserEntity is only loaded if a handler needs it
+            CustomUserDetails customUserDetails = new CustomUserDetails(authenticatedUser,
+                    () -> userRepository.findById(authenticatedUser.id())
+                            .orElseThrow(() -> new RuntimeException("User not found: " + username)));
 
             // 8. Set the authenticated user in Spring Security's context.
             SecurityContext context = SecurityContextHolder.getContext();
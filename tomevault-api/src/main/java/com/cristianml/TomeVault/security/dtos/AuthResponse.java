@@ -11,12 +11,17 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 
-@JsonPropertyOrder({"username", "message", "jwt", "status"})
+@JsonPropertyOrder({"username", "message", "jwt", "refreshToken", "status"})
 public class AuthResponse {
 
     private String username;
     private String message;
     private String jwt;
+    private String refreshToken; // Only present when a new refresh token was issued
     private boolean status;
 
+    public AuthResponse(String username, String message, String jwt, boolean status) {
+        this(username, message, jwt, null, status);
+    }
+
 }
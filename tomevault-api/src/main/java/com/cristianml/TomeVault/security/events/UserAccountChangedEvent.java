@@ -0,0 +1,6 @@
+package com.cristianml.TomeVault.security.events;
+
+// Published whenever a user's identity, status, roles or credentials change,
+// so anything caching that user's principal can drop it.
+public record UserAccountChangedEvent(Long userId) {
+}
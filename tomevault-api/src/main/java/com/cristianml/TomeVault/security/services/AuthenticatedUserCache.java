@@ -0,0 +1,52 @@
+package com.cristianml.TomeVault.security.services;
+
+import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.security.config.AuthenticatedUser;
+import com.cristianml.TomeVault.security.events.UserAccountChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Principals for token subjects, so authenticated requests skip the user + roles + permissions load.
+// Entries are dropped when the user changes, and expire anyway after a short TTL.
+@Component
+public class AuthenticatedUserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthenticatedUser> principals;
+
+    public AuthenticatedUserCache(UserRepository userRepository,
+                                  @Value("${security.principal-cache.ttl:5m}") Duration ttl,
+                                  @Value("${security.principal-cache.max-entries:10000}") long maxEntries,
+                                  MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "authenticatedUsers");
+    }
+
+    // Subject is the username, older tokens may carry the email instead.
+    // Returns null when no such user exists; misses are not cached.
+    public AuthenticatedUser get(String subject) {
+        return principals.get(subject, key -> userRepository.findByUsernameOrEmail(key)
+                .map(AuthenticatedUser::from)
+                .orElse(null));
+    }
+
+    // Runs after the change commits (or immediately outside a transaction), so the
+    // reload that follows the eviction sees the new state.
+    // A user can be cached under both username and email, so match on id.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        principals.asMap().values().removeIf(principal -> principal.id().equals(event.userId()));
+    }
+}
@@ -0,0 +1,146 @@
+package com.cristianml.TomeVault.security.services;
+
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.exceptions.LoginThrottledException;
+import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.utilities.SlidingWindowCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+// Tracks failed logins per username and per client IP in memory. Clients over the limit
+// are turned away before any query or bcrypt work; a username that keeps failing gets
+// its account locked in the database through lockedUntil for lockDuration.
+@Slf4j
+@Service
+public class LoginAttemptService {
+
+    private static final String DEMO_USER_EMAIL = "demo@tomevault.com";
+    private static final int WINDOW_SLOTS = 15;
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration window;
+    private final int maxFailuresPerUsername;
+    private final int maxFailuresPerIp;
+    private final int lockAccountAfter;
+    private final Duration lockWindow;
+    private final Duration lockDuration;
+    // Bounded so a flood of random usernames or spoofed addresses can't grow memory
+    private final Cache<String, SlidingWindowCounter> usernameFailures;
+    private final Cache<String, SlidingWindowCounter> ipFailures;
+    // Longer horizon for persistent lockouts, the short window above resets too quickly
+    private final Cache<String, SlidingWindowCounter> lockoutFailures;
+
+    public LoginAttemptService(UserRepository userRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${security.login-throttle.window:15m}") Duration window,
+                               @Value("${security.login-throttle.max-failures-per-username:5}") int maxFailuresPerUsername,
+                               @Value("${security.login-throttle.max-failures-per-ip:20}") int maxFailuresPerIp,
+                               @Value("${security.login-throttle.lock-account-after:20}") int lockAccountAfter,
+                               @Value("${security.login-throttle.lock-window:24h}") Duration lockWindow,
+                               @Value("${security.login-throttle.lock-duration:1h}") Duration lockDuration,
+                               @Value("${security.login-throttle.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.window = window;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.lockAccountAfter = lockAccountAfter;
+        this.lockWindow = lockWindow;
+        this.lockDuration = lockDuration;
+        this.usernameFailures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(window)
+                .build();
+        this.ipFailures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(window)
+                .build();
+        this.lockoutFailures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(lockWindow)
+                .build();
+    }
+
+    // Rejects the attempt when the username or the client IP failed too often recently
+    public void checkAllowed(String usernameOrEmail) {
+        SlidingWindowCounter byUsername = usernameFailures.getIfPresent(normalize(usernameOrEmail));
+        if (byUsername != null && byUsername.count() >= maxFailuresPerUsername) {
+            throw throttled("username", byUsername);
+        }
+        SlidingWindowCounter byIp = ipFailures.getIfPresent(clientIp());
+        if (byIp != null && byIp.count() >= maxFailuresPerIp) {
+            throw throttled("ip", byIp);
+        }
+    }
+
+    public void recordFailure(String usernameOrEmail) {
+        meterRegistry.counter("auth.login.failures").increment();
+        ipFailures.get(clientIp(), key -> new SlidingWindowCounter(window, WINDOW_SLOTS)).increment();
+
+        String username = normalize(usernameOrEmail);
+        usernameFailures.get(username, key -> new SlidingWindowCounter(window, WINDOW_SLOTS)).increment();
+        if (lockAccountAfter > 0) {
+            SlidingWindowCounter recent = lockoutFailures.get(username, key -> new SlidingWindowCounter(lockWindow, WINDOW_SLOTS));
+            recent.increment();
+            if (recent.count() >= lockAccountAfter) {
+                lockAccount(usernameOrEmail);
+                lockoutFailures.invalidate(username);
+            }
+        }
+    }
+
+    // A correct password clears the username's failures, the IP's count keeps decaying on its own
+    public void recordSuccess(String usernameOrEmail) {
+        String username = normalize(usernameOrEmail);
+        usernameFailures.invalidate(username);
+        lockoutFailures.invalidate(username);
+    }
+
+    // Time-bound so that anyone who knows a username can't keep its owner out for good.
+    // Only password logins are refused, sessions already open keep working.
+    private void lockAccount(String usernameOrEmail) {
+        UserEntity user = userRepository.findByUsernameOrEmail(usernameOrEmail).orElse(null);
+        // The shared demo account must stay usable
+        if (user == null || DEMO_USER_EMAIL.equals(user.getEmail())) {
+            return;
+        }
+        LocalDateTime lockedUntil = LocalDateTime.now().plus(lockDuration);
+        if (user.getLockedUntil() != null && user.getLockedUntil().isAfter(lockedUntil)) {
+            return;
+        }
+        user.setLockedUntil(lockedUntil);
+        userRepository.save(user);
+        meterRegistry.counter("auth.login.locked").increment();
+        log.warn("Account {} locked until {} after {} failed logins within {}",
+                user.getId(), lockedUntil, lockAccountAfter, lockWindow);
+    }
+
+    private LoginThrottledException throttled(String scope, SlidingWindowCounter counter) {
+        meterRegistry.counter("auth.login.throttled", "scope", scope).increment();
+        return new LoginThrottledException(
+                "Demasiados intentos fallidos. Inténtelo de nuevo más tarde.",
+                Math.max(1, counter.slotDuration().toSeconds()));
+    }
+
+    private static String normalize(String usernameOrEmail) {
+        return usernameOrEmail == null ? "" : usernameOrEmail.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String clientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getRemoteAddr();
+        }
+        return "unknown";
+    }
+}
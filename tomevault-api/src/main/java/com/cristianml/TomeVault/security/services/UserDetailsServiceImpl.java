@@ -3,6 +3,7 @@ package com.cristianml.TomeVault.security.services;
 import com.cristianml.TomeVault.entities.UserEntity;
 import com.cristianml.TomeVault.exceptions.AccountDeletedException;
 import com.cristianml.TomeVault.exceptions.AccountDisabledException;
+import com.cristianml.TomeVault.exceptions.AccountLockedException;
 import com.cristianml.TomeVault.repositories.RoleRepository;
 import com.cristianml.TomeVault.repositories.UserRepository;
 import com.cristianml.TomeVault.security.config.CustomUserDetails;
@@ -14,6 +15,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -27,8 +30,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
 
         // We capture the user
-        UserEntity userEntity = userRepository.findUserEntityByUsername(usernameOrEmail)
-                .or(() -> userRepository.findUserEntityByEmail(usernameOrEmail))
+        UserEntity userEntity = userRepository.findByUsernameOrEmail(usernameOrEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email" + usernameOrEmail));
 
        /* List<SimpleGrantedAuthority> authorityList = new ArrayList<>();
@@ -59,6 +61,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         if (!userEntity.isEnabled()) {
             throw new AccountDisabledException("User account is disabled.");
         }
+        // Check if user is locked, by an admin or for a while after repeated failed logins.
+        if (!userEntity.isAccountNonLocked()) {
+            throw new AccountLockedException("User account is locked.");
+        }
+        if (userEntity.getLockedUntil() != null && userEntity.getLockedUntil().isAfter(LocalDateTime.now())) {
+            throw new AccountLockedException("User account is locked until " + userEntity.getLockedUntil() + ".");
+        }
 
         // Simply return a new instance of CustomUserDetails because we configure the authorities in this Custom class
         return new CustomUserDetails(userEntity);
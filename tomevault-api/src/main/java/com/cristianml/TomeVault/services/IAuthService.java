@@ -3,10 +3,12 @@ package com.cristianml.TomeVault.services;
 import com.cristianml.TomeVault.dtos.requests.UserRegistrationRequestDTO;
 import com.cristianml.TomeVault.security.dtos.AuthLoginRequest;
 import com.cristianml.TomeVault.security.dtos.AuthResponse;
+import com.cristianml.TomeVault.security.dtos.RefreshTokenRequest;
 
 public interface IAuthService {
 
     AuthResponse loginUser(AuthLoginRequest request);
     AuthResponse registerUser(UserRegistrationRequestDTO request);
+    AuthResponse refreshToken(RefreshTokenRequest request);
 
 }
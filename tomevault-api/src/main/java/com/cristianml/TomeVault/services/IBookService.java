@@ -1,7 +1,9 @@
 package com.cristianml.TomeVault.services;
 
 import com.cristianml.TomeVault.dtos.requests.BookRequestDTO;
+import com.cristianml.TomeVault.dtos.responses.BookImportResultDTO;
 import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+import com.cristianml.TomeVault.dtos.responses.BookSliceResponseDTO;
 import com.cristianml.TomeVault.entities.UserEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,10 +14,16 @@ public interface IBookService {
 
     Page<BookResponseDTO> getBooksByUser(UserEntity user, Pageable pageable);
 
+    BookSliceResponseDTO getBooksByUserAfter(UserEntity user, String cursor, int size);
+
+    Page<BookResponseDTO> searchBooksByUser(UserEntity user, String query, Pageable pageable);
+
     BookResponseDTO saveBook(BookRequestDTO request, UserEntity user);
 
     BookResponseDTO saveBookFromGoogle(String googleBookId, UserEntity user);
 
+    List<BookImportResultDTO> saveBooksFromGoogle(List<String> googleBookIds, UserEntity user);
+
     List<BookResponseDTO> searchBooksFromGoogle(String query);
 
     BookResponseDTO updateBook(Long bookId, BookRequestDTO request, UserEntity user);
@@ -0,0 +1,18 @@
+package com.cristianml.TomeVault.services;
+
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ICatalogService {
+
+    CatalogVolumeEntity getOrFetchVolume(String googleBookId);
+
+    // Resolves many volumes at once; each entry carries either the volume or the error for that ID
+    Map<String, VolumeLookup> getOrFetchVolumes(Collection<String> googleBookIds);
+
+    record VolumeLookup(CatalogVolumeEntity volume, RuntimeException error) {
+    }
+
+}
@@ -9,5 +9,6 @@ public interface IGoogleBooksIntegrationService {
 
     List<GoogleBookItem> searchBooks(String query);
     GoogleBookItem getBookById(String googleBookId) throws ResourceNotFoundException;
+    GoogleBookItem getBookByIdForImport(String googleBookId) throws ResourceNotFoundException;
 
 }
@@ -0,0 +1,17 @@
+package com.cristianml.TomeVault.services;
+
+import com.cristianml.TomeVault.entities.UserEntity;
+
+public interface IRefreshTokenService {
+
+    // Starts a new token family, e.g. on login
+    String issue(UserEntity user);
+
+    // Exchanges a refresh token for its successor; the presented token can't be used again
+    Rotation rotate(String refreshToken);
+
+    // Invalidates every outstanding refresh token of the user
+    void revokeAll(Long userId);
+
+    record Rotation(UserEntity user, String refreshToken) {}
+}
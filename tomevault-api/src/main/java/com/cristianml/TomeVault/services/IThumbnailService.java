@@ -0,0 +1,12 @@
+package com.cristianml.TomeVault.services;
+
+import java.nio.file.Path;
+
+public interface IThumbnailService {
+
+    ThumbnailFile getThumbnail(String googleBookId);
+
+    // A cached cover on disk. The file name is the SHA-256 of its content, which doubles as a strong ETag.
+    record ThumbnailFile(Path path, long size, String contentHash, String contentType) {
+    }
+}
@@ -10,17 +10,20 @@ import com.cristianml.TomeVault.exceptions.UnauthorizedException;
 import com.cristianml.TomeVault.mappers.UserMapper;
 import com.cristianml.TomeVault.repositories.RoleRepository;
 import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.security.events.UserAccountChangedEvent;
 import com.cristianml.TomeVault.security.entities.RoleEntity;
 import com.cristianml.TomeVault.security.entities.RoleEnum;
+import com.cristianml.TomeVault.security.services.PasswordHashingService;
 import com.cristianml.TomeVault.services.IAdminUserService;
+import com.cristianml.TomeVault.services.IRefreshTokenService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,10 +41,12 @@ import static com.cristianml.TomeVault.utilities.Utilities.validatePassword;
 public class AdminUserServiceImpl implements IAdminUserService {
 
     private static final Object DEMO_USER_EMAIL = "demo@tomevault.com";
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService; // bcrypt off the request threads
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IRefreshTokenService refreshTokenService;
 
     @Override
     @Transactional(readOnly = true)
@@ -62,17 +67,17 @@ public class AdminUserServiceImpl implements IAdminUserService {
     @Transactional
     public UserProfileResponseDTO createUser(UserCreateRequestDTO userCreateRequestDTO) {
 
-        // Validate email uniqueness.
-        if (this.userRepository.existsByEmail(userCreateRequestDTO.getEmail())) {
+        // Validate email uniqueness (case-insensitive, like login).
+        if (this.userRepository.existsByEmailIgnoreCase(userCreateRequestDTO.getEmail())) {
             throw new IllegalArgumentException("Email is already in use: " + userCreateRequestDTO.getEmail());
         }
-        // Validate username uniqueness.
-        if (this.userRepository.existsByUsername(userCreateRequestDTO.getUsername())) {
+        // Validate username uniqueness (case-insensitive, like login).
+        if (this.userRepository.existsByUsernameIgnoreCase(userCreateRequestDTO.getUsername())) {
             throw new IllegalArgumentException("Username is already in use: " + userCreateRequestDTO.getUsername());
         }
 
         UserEntity user = userMapper.toEntity(userCreateRequestDTO);
-        user.setPassword(passwordEncoder.encode(userCreateRequestDTO.getPassword()));
+        user.setPassword(passwordHashingService.encode(userCreateRequestDTO.getPassword()));
 
         // Sets default user status.
         user.setEnabled(true);
@@ -104,23 +109,24 @@ public class AdminUserServiceImpl implements IAdminUserService {
         validatedAdminPermission(currentUser, existingUser);
 
         if (userUpdateRequestDTO.getEmail() != null &&
-                !userUpdateRequestDTO.getEmail().equals(existingUser.getEmail())) {
-            if (this.userRepository.existsByEmail(userUpdateRequestDTO.getEmail())) {
+                !userUpdateRequestDTO.getEmail().equalsIgnoreCase(existingUser.getEmail())) {
+            if (this.userRepository.existsByEmailIgnoreCase(userUpdateRequestDTO.getEmail())) {
                 throw new IllegalArgumentException("Email is already in use by another user: " + userUpdateRequestDTO.getEmail());
             }
         }
 
         if (userUpdateRequestDTO.getUsername() != null &&
-                !userUpdateRequestDTO.getUsername().equals(existingUser.getUsername())) {
-            if (userRepository.existsByUsername(userUpdateRequestDTO.getUsername())) {
+                !userUpdateRequestDTO.getUsername().equalsIgnoreCase(existingUser.getUsername())) {
+            if (userRepository.existsByUsernameIgnoreCase(userUpdateRequestDTO.getUsername())) {
                 throw new IllegalArgumentException("Username is already in use by another user: " + userUpdateRequestDTO.getUsername());
             }
         }
 
-        // Uses mapper to update fields from DTO (ModelMapper handles null checks automatically).
+        // Copies the editable profile fields from the DTO
         this.userMapper.updateEntityFromDto(userUpdateRequestDTO, existingUser);
 
         UserEntity updatedUser = this.userRepository.save(existingUser);
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(id));
         return userMapper.toProfileResponse(updatedUser);
     }
 
@@ -147,6 +153,7 @@ public class AdminUserServiceImpl implements IAdminUserService {
         userToDelete.setEnabled(false);
         userToDelete.setAccountNonLocked(false);
         this.userRepository.save(userToDelete);
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(id));
     }
 
     // Permanently removes a user from the database.
@@ -169,6 +176,7 @@ public class AdminUserServiceImpl implements IAdminUserService {
         validatedAdminPermission(currentUser, targetUser);
 
         userRepository.deleteById(id);
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(id));
     }
 
     private static final Logger logger = LoggerFactory.getLogger(AdminUserServiceImpl.class);
@@ -192,6 +200,7 @@ public class AdminUserServiceImpl implements IAdminUserService {
             throw new ResourceNotFoundException("Roles not found: " + newRoles);
         }
         user.setRoleList(newRoles);
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId));
         UserProfileResponseDTO updatedUser = userMapper.toProfileResponse(user);
         logger.debug("user update:{}roles: {}", updatedUser.getUsername(), updatedUser.getRoles());
         return userMapper.toProfileResponse(user);
@@ -213,10 +222,12 @@ public class AdminUserServiceImpl implements IAdminUserService {
         validatedAdminPermission(currentUser, userToUpdate);
 
         validatePassword(newRawPassword);
-        userToUpdate.setPassword(this.passwordEncoder.encode(newRawPassword));
+        userToUpdate.setPassword(this.passwordHashingService.encode(newRawPassword));
         userToUpdate.setCredentialsNonExpired(true);
 
         UserEntity updateUser = this.userRepository.save(userToUpdate);
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId));
+        this.refreshTokenService.revokeAll(userId);
         return this.userMapper.toProfileResponse(updateUser);
     }
 
@@ -246,9 +257,12 @@ public class AdminUserServiceImpl implements IAdminUserService {
             userToUpdate.setAccountNonLocked(false);
         } else {
             userToUpdate.setAccountNonLocked(true);
+            // Re-enabling also lifts a failed-login lockout
+            userToUpdate.setLockedUntil(null);
         }
 
         UserEntity updated = this.userRepository.save(userToUpdate);
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId));
         return null;
     }
 
@@ -3,15 +3,22 @@ package com.cristianml.TomeVault.services.impl;
 import com.cristianml.TomeVault.dtos.requests.UserRegistrationRequestDTO;
 import com.cristianml.TomeVault.entities.BookEntity;
 import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.exceptions.PasswordHashingBusyException;
 import com.cristianml.TomeVault.mappers.UserMapper;
 import com.cristianml.TomeVault.repositories.BookRepository;
 import com.cristianml.TomeVault.repositories.RoleRepository;
 import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.security.config.AuthenticatedUser;
+import com.cristianml.TomeVault.security.config.CustomUserDetails;
 import com.cristianml.TomeVault.security.dtos.AuthLoginRequest;
 import com.cristianml.TomeVault.security.dtos.AuthResponse;
+import com.cristianml.TomeVault.security.dtos.RefreshTokenRequest;
 import com.cristianml.TomeVault.security.entities.RoleEntity;
+import com.cristianml.TomeVault.security.services.LoginAttemptService;
+import com.cristianml.TomeVault.security.services.PasswordHashingService;
 import com.cristianml.TomeVault.security.services.UserDetailsServiceImpl;
 import com.cristianml.TomeVault.services.IAuthService;
+import com.cristianml.TomeVault.services.IRefreshTokenService;
 import com.cristianml.TomeVault.utilities.JwtUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,13 +28,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -45,8 +51,10 @@ public class AuthServiceImpl implements IAuthService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final BookRepository bookRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService; // bcrypt off the request threads
     private final UserDetailsServiceImpl userDetailsService;
+    private final IRefreshTokenService refreshTokenService;
+    private final LoginAttemptService loginAttemptService; // Failed-login throttling
 
     // Authenticates user credentials and generates JWT access token.
     // Validates username/password combination and sets security context.
@@ -56,11 +64,22 @@ public class AuthServiceImpl implements IAuthService {
         String username = authLoginRequest.getUsernameOrEmail();
         String password = authLoginRequest.getPassword();
 
-        // Reset books from demo user.
-        resetDemoUserBooks(username);
+        // Turn away throttled usernames and IPs before any query or bcrypt work
+        this.loginAttemptService.checkAllowed(username);
 
         // Authenticate user credentials using Spring Security's UserDetailsService
-        Authentication authentication = this.authenticate(username, password);
+        Authentication authentication;
+        try {
+            authentication = this.authenticate(username, password);
+        } catch (BadCredentialsException | UsernameNotFoundException e) {
+            this.loginAttemptService.recordFailure(username);
+            throw e;
+        }
+        this.loginAttemptService.recordSuccess(username);
+
+        // Reset books from demo user, reusing the account loaded by authenticate
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        resetDemoUserBooks(userDetails.getUserEntity());
 
         // Set authenticated user in Spring Security context for request scope
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -68,8 +87,26 @@ public class AuthServiceImpl implements IAuthService {
         // Generate JWT access token containing user authorities and claims
         String accessToken = this.jwtUtils.createToken(authentication);
 
+        // Start a refresh token family so the client can renew without sending the password again
+        String refreshToken = this.refreshTokenService.issue(userDetails.getUserEntity());
+
         // Return successful authentication response with token
-        return new AuthResponse(username, "User logged in successfully.", accessToken, true);
+        return new AuthResponse(username, "User logged in successfully.", accessToken, refreshToken, true);
+    }
+
+    // Exchanges a refresh token for a new access token and the next refresh token.
+    // No password check here, the single-use refresh token is the credential.
+    @Override
+    public AuthResponse refreshToken(RefreshTokenRequest request) {
+        IRefreshTokenService.Rotation rotation = this.refreshTokenService.rotate(request.getRefreshToken());
+        AuthenticatedUser user = AuthenticatedUser.from(rotation.user());
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                user.username(), null, user.authorities());
+        String accessToken = this.jwtUtils.createToken(authentication);
+
+        return new AuthResponse(user.username(), "Token refreshed successfully.", accessToken,
+                rotation.refreshToken(), true);
     }
 
     // Registers new user with complete profile validation and default role assignment.
@@ -86,13 +123,13 @@ public class AuthServiceImpl implements IAuthService {
             throw new IllegalArgumentException("Las contraseñas no coinciden.");
         }
 
-        // Ensure username uniqueness across the system
-        if (userRepository.findUserEntityByUsername(username).isPresent()) {
+        // Ensure username uniqueness across the system, ignoring case like login does
+        if (userRepository.existsByUsernameIgnoreCase(username)) {
             throw new IllegalArgumentException("Nombre de usuario ya existente.");
         }
 
-        // Ensure email uniqueness across the system
-        if (userRepository.findUserEntityByEmail(email).isPresent()) {
+        // Ensure email uniqueness across the system, ignoring case like login does
+        if (userRepository.existsByEmailIgnoreCase(email)) {
             throw new IllegalArgumentException("Correo electrónico ya existente.");
         }
 
@@ -107,7 +144,7 @@ public class AuthServiceImpl implements IAuthService {
         validatePassword(password);
         // Build new user entity using mapper for consistent field mapping
         UserEntity userEntity = this.userMapper.toEntity(registrationRequestDTO);
-        userEntity.setPassword(passwordEncoder.encode(registrationRequestDTO.getPassword())); // Secure password encoding
+        userEntity.setPassword(passwordHashingService.encode(registrationRequestDTO.getPassword())); // Secure password encoding
         userEntity.setRoleList(defaultRoles);
 
         // Set default account status flags for new users
@@ -137,8 +174,9 @@ public class AuthServiceImpl implements IAuthService {
 
         // Generate JWT access token for immediate authentication post-registration
         String accessToken = this.jwtUtils.createToken(authentication);
+        String refreshToken = this.refreshTokenService.issue(userCreated);
 
-        return new AuthResponse(userCreated.getUsername(), "User registered successfully.", accessToken, true);
+        return new AuthResponse(userCreated.getUsername(), "User registered successfully.", accessToken, refreshToken, true);
     }
 
     // Private helper method for credential authentication.
@@ -147,10 +185,23 @@ public class AuthServiceImpl implements IAuthService {
         UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
         // Validate password using secure password encoder comparison
-        if(!passwordEncoder.matches(password, userDetails.getPassword())) {
+        if(!passwordHashingService.matches(password, userDetails.getPassword())) {
             throw new BadCredentialsException("Invalid password.");
         }
 
+        // Upgrade the stored hash when the configured bcrypt cost changed since it was made
+        if (passwordHashingService.needsRehash(userDetails.getPassword())
+                && userDetails instanceof CustomUserDetails customUserDetails) {
+            try {
+                UserEntity userEntity = customUserDetails.getUserEntity();
+                userEntity.setPassword(passwordHashingService.encode(password));
+                this.userRepository.save(userEntity);
+            } catch (PasswordHashingBusyException e) {
+                // The login itself succeeded, the upgrade can wait for the next one
+                log.debug("Skipped password rehash for {}, hashing pool busy", username);
+            }
+        }
+
         // Return authenticated token without exposing sensitive password data
         return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -158,23 +209,9 @@ public class AuthServiceImpl implements IAuthService {
 
     // Handle user demo limit.
     @Transactional
-    public void resetDemoUserBooks(String usernameOrEmail) {
-
-        // Verify if is Demo User
-        Optional<UserEntity> userOpt = userRepository.findUserEntityByEmail(usernameOrEmail);
-
-        // If cannot find by email, search by username.
-        if (userOpt.isEmpty()) {
-            userOpt = userRepository.findUserEntityByUsername(usernameOrEmail);
-        }
+    public void resetDemoUserBooks(UserEntity user) {
 
         // do nothing if not is demo user.
-        if (userOpt.isEmpty()) {
-            log.debug("User not found by email or username: {}", usernameOrEmail);
-            return;
-        }
-
-        UserEntity user = userOpt.get();
         if (!"demo@tomevault.com".equals(user.getEmail())) return;
 
         // Active all 5 first books
@@ -2,42 +2,115 @@ package com.cristianml.TomeVault.services.impl;
 
 import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
 import com.cristianml.TomeVault.dtos.requests.BookRequestDTO;
+import com.cristianml.TomeVault.dtos.responses.BookImportResultDTO;
 import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+import com.cristianml.TomeVault.dtos.responses.BookSliceResponseDTO;
 import com.cristianml.TomeVault.entities.BookEntity;
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
 import com.cristianml.TomeVault.entities.UserEntity;
 import com.cristianml.TomeVault.exceptions.BookAlreadyExistsException;
 import com.cristianml.TomeVault.exceptions.BookPreviouslyDeletedException;
+import com.cristianml.TomeVault.exceptions.BookNotFoundException;
 import com.cristianml.TomeVault.exceptions.DemoLimitExceededException;
 import com.cristianml.TomeVault.exceptions.ResourceNotFoundException;
 import com.cristianml.TomeVault.mappers.BookMapper;
+import com.cristianml.TomeVault.repositories.BookBatchRepository;
 import com.cristianml.TomeVault.repositories.BookRepository;
 import com.cristianml.TomeVault.services.IBookService;
+import com.cristianml.TomeVault.services.ICatalogService;
 import com.cristianml.TomeVault.services.IGoogleBooksIntegrationService;
+import com.cristianml.TomeVault.utilities.BookCursor;
+import com.cristianml.TomeVault.utilities.GoogleBooksQueries;
+import com.github.benmanes.caffeine.cache.Cache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 // Main service for handling all book operations including Google Books integration
 @Service
 @RequiredArgsConstructor
 public class BookServiceImpl implements IBookService {
 
+    private static final int DEMO_BOOK_LIMIT = 10;
+    private static final int MAX_SLICE_SIZE = 100;
+
     private final BookRepository bookRepository; // Database operations for books
+    private final BookBatchRepository bookBatchRepository; // JDBC batch inserts and read counter updates
     private final BookMapper bookMapper; // Converts between entities and DTOs
     private final IGoogleBooksIntegrationService googleBooksIntegrationService; // Google Books API integration
+    private final ICatalogService catalogService; // Shared metadata for Google volumes
+    private final Cache<String, List<BookResponseDTO>> bookSearchResultCache; // Mapped search results by normalized query
+    private final ReadCountBuffer readCountBuffer; // Optional write-behind for read counter taps
 
-    // Get paginated list of active books for a specific user
+    // Get paginated list of active books for a specific user.
+    // Card fields only (description is left to the detail endpoint); tags for the page in one query.
     @Override
     public Page<BookResponseDTO> getBooksByUser(UserEntity userEntity, Pageable pageable) {
-        Page<BookEntity> books = this.bookRepository.findAllByUserAndIsActiveTrue(userEntity, pageable);
-        return books.map(bookMapper::toResponseDTO);
+        Page<BookRepository.BookCard> cards = this.bookRepository.findActiveCardsByUser(userEntity, pageable);
+        Map<Long, List<String>> tags = tagsByBookId(cards.getContent());
+        return cards.map(card -> bookMapper.toCardDTO(card, tags.get(card.getId())));
+    }
+
+    // Cursor mode of the listing: cost stays flat however deep the client scrolls
+    @Override
+    public BookSliceResponseDTO getBooksByUserAfter(UserEntity userEntity, String cursor, int size) {
+        BookCursor after = BookCursor.decode(cursor);
+        Pageable firstPage = PageRequest.of(0, Math.clamp(size, 1, MAX_SLICE_SIZE));
+        Slice<BookRepository.BookCard> cards = after == null
+                ? this.bookRepository.findActiveCardsByUserNewestFirst(userEntity, firstPage)
+                : this.bookRepository.findActiveCardsByUserNewestFirstAfter(userEntity, after.addedAt(), after.id(), firstPage);
+
+        List<BookRepository.BookCard> content = cards.getContent();
+        String nextCursor = null;
+        if (cards.hasNext()) {
+            BookRepository.BookCard last = content.get(content.size() - 1);
+            nextCursor = new BookCursor(last.getAddedAt(), last.getId()).encode();
+        }
+        Map<Long, List<String>> tags = tagsByBookId(content);
+        return new BookSliceResponseDTO(
+                content.stream().map(card -> bookMapper.toCardDTO(card, tags.get(card.getId()))).toList(),
+                content.size(), cards.hasNext(), nextCursor);
+    }
+
+    private Map<Long, List<String>> tagsByBookId(List<BookRepository.BookCard> cards) {
+        if (cards.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> bookIds = cards.stream().map(BookRepository.BookCard::getId).toList();
+        return this.bookRepository.findTagsByBookIdIn(bookIds).stream()
+                .collect(Collectors.groupingBy(BookRepository.BookTag::getBookId,
+                        Collectors.mapping(BookRepository.BookTag::getTag, Collectors.toList())));
+    }
+
+    // Full-text search inside the user's own library, best matches first.
+    // Same card rows and batched tags as the listing.
+    @Override
+    public Page<BookResponseDTO> searchBooksByUser(UserEntity userEntity, String query, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query can't be empty.");
+        }
+        // Results are ordered by rank, so any client-side sort is ignored
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<BookRepository.BookCard> cards = this.bookRepository.searchActiveByUser(userEntity.getId(), query.trim(), unsorted);
+        Map<Long, List<String>> tags = tagsByBookId(cards.getContent());
+        return cards.map(card -> bookMapper.toCardDTO(card, tags.get(card.getId())));
     }
 
     // Save a new book from manual input
@@ -46,6 +119,9 @@ public class BookServiceImpl implements IBookService {
     public BookResponseDTO saveBook(BookRequestDTO bookRequestDTO, UserEntity userEntity) {
         BookEntity bookEntity = this.bookMapper.toEntity(bookRequestDTO);
         bookEntity.setUser(userEntity);
+        if (bookEntity.getAddedAt() == null) {
+            bookEntity.setAddedAt(LocalDate.now(ZoneId.of("UTC")));
+        }
         BookEntity saved = this.bookRepository.save(bookEntity);
         return bookMapper.toResponseDTO(saved);
     }
@@ -58,6 +134,7 @@ public class BookServiceImpl implements IBookService {
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found or does not belong to the user."));
         delete.setActive(false);
         this.bookRepository.save(delete);
+        readCountBuffer.invalidate(bookId);
     }
 
     // Reactivate a previously deleted book with option to keep reading progress
@@ -78,6 +155,7 @@ public class BookServiceImpl implements IBookService {
         // If keepProgress is true, maintain current readCount
 
         BookEntity savedBook = bookRepository.save(deactivatedBook);
+        readCountBuffer.invalidate(savedBook.getId());
         return bookMapper.toResponseDTO(savedBook);
     }
 
@@ -93,46 +171,39 @@ public class BookServiceImpl implements IBookService {
     @Override
     public BookResponseDTO getBookFromGoogleBookApi(String googleBookId) {
         GoogleBookItem googleBookItem = this.googleBooksIntegrationService.getBookById(googleBookId);
-        BookEntity book = this.bookMapper.toEntity(googleBookItem);
-        return this.bookMapper.toResponseDTO(book);
+        return this.bookMapper.toResponseDTO(googleBookItem);
     }
 
     // Increase the read counter for a book
     @Override
-    @Transactional
     public BookResponseDTO incrementBookReadCount(Long bookId, UserEntity user) {
-        int updateRows = this.bookRepository.incrementReadCount(bookId, user);
-        if (updateRows == 0) {
-            // Check if book exists at all or just not owned by user
-            bookRepository.findById(bookId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
-            throw new ResourceNotFoundException("Book not found or not owned by user with ID: " + bookId);
+        if (readCountBuffer.isEnabled()) {
+            return readCountBuffer.increment(bookId, user);
         }
-        // Fetch updated book to return with new count
-        BookEntity updatedBook = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found after update with ID: " + bookId));
-        return bookMapper.toResponseDTO(updatedBook);
+        return changeReadCount(bookId, user, 1);
     }
 
     // Decrease the read counter for a book, prevents going below zero
     @Override
     public BookResponseDTO decrementBookReadCount(Long bookId, UserEntity user) {
-        int updateRows = this.bookRepository.decrementReadCount(bookId, user);
-
-        if (updateRows == 0) {
-            // Check if book exists or if read count is already at zero
-            BookEntity book = bookRepository.findById(bookId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
-            if (book.getReadCount() == 0) {
-                throw new IllegalArgumentException("Cannot decrement read count below zero for book ID: " + bookId);
-            } else {
-                throw new ResourceNotFoundException("Book not found or not owned by user with ID: " + bookId);
-            }
+        if (readCountBuffer.isEnabled()) {
+            return readCountBuffer.decrement(bookId, user);
+        }
+        return changeReadCount(bookId, user, -1);
+    }
+
+    // One round trip: the update returns the new state, or who owns the book when nothing changed.
+    // Neither path needs a surrounding transaction, the buffer commits its flushes on its own.
+    private BookResponseDTO changeReadCount(Long bookId, UserEntity user, int step) {
+        BookBatchRepository.ReadCountChange change = this.bookBatchRepository.addToReadCount(bookId, user.getId(), step)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
+        if (change.book() != null) {
+            return bookMapper.toResponseDTO(change.book());
         }
-        // Fetch updated book to return with new count
-        BookEntity book = this.bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found after with ID: " + bookId));
-        return bookMapper.toResponseDTO(book);
+        if (change.ownerId() != user.getId()) {
+            throw new ResourceNotFoundException("Book not found or not owned by user with ID: " + bookId);
+        }
+        throw new IllegalArgumentException("Cannot decrement read count below zero for book ID: " + bookId);
     }
 
     // Update book details like title, author, description, etc.
@@ -141,14 +212,22 @@ public class BookServiceImpl implements IBookService {
     public BookResponseDTO updateBook(Long bookId, BookRequestDTO bookRequestDTO, UserEntity userEntity) {
         BookEntity existing = this.bookRepository.findByIdAndUser(bookId, userEntity)
                 .orElseThrow(() -> new RuntimeException("Book not found or does not belong to the user."));
-        // Update all fields from the DTO
+        // Update all fields from the DTO, storing only values that differ from the shared catalog
+        CatalogVolumeEntity volume = existing.getVolume();
         existing.setTitle(bookRequestDTO.getTitle());
-        existing.setAuthor(bookRequestDTO.getAuthor());
-        existing.setDescription(bookRequestDTO.getDescription());
-        existing.setThumbnail(bookRequestDTO.getThumbnail());
-        existing.setAddedAt(bookRequestDTO.getAddedAt());
+        existing.setAuthor(overrideOf(bookRequestDTO.getAuthor(), volume, CatalogVolumeEntity::getAuthor));
+        existing.setDescription(overrideOf(bookRequestDTO.getDescription(), volume, CatalogVolumeEntity::getDescription));
+        existing.setThumbnail(overrideOf(bookRequestDTO.getThumbnail(), volume, CatalogVolumeEntity::getThumbnail));
+        // Tags are only replaced when sent
+        if (bookRequestDTO.getTags() != null) {
+            updateTags(existing, bookRequestDTO.getTags());
+        }
+        if (bookRequestDTO.getAddedAt() != null) {
+            existing.setAddedAt(bookRequestDTO.getAddedAt());
+        }
         existing.setFinishedAt(bookRequestDTO.getFinishedAt());
         BookEntity updated = this.bookRepository.save(existing);
+        readCountBuffer.invalidate(bookId);
         return bookMapper.toResponseDTO(updated);
     }
 
@@ -160,7 +239,7 @@ public class BookServiceImpl implements IBookService {
         // Check limit for demo user
         if (isDemoUser(user)) {
             long bookCount = bookRepository.countByUserAndIsActiveTrue(user);
-            if (bookCount >= 10) {
+            if (bookCount >= DEMO_BOOK_LIMIT) {
                 throw new DemoLimitExceededException(
                   "Demo user limit reached (maximum 10 books)"
                 );
@@ -178,29 +257,163 @@ public class BookServiceImpl implements IBookService {
             throw new BookAlreadyExistsException("Book already exists in your collection");
         }
 
-        // Fetch book data from Google Books API
-        GoogleBookItem googleBook = this.googleBooksIntegrationService.getBookById(googleBookId);
-        BookEntity book = this.bookMapper.toEntity(googleBook);
+        // Shared metadata, Google is only called the first time anyone adds this volume
+        // and when the cataloged copy is due for a refresh
+        CatalogVolumeEntity volume = this.catalogService.getOrFetchVolume(googleBookId);
 
-        // Set default author if none provided
-        if (book.getAuthor() == null || book.getAuthor().isBlank()) {
-            book.setAuthor("Autor desconocido");
-        }
+        // The user's row only keeps ownership state; metadata is resolved from the catalog
+        BookEntity book = BookEntity.builder()
+                .googleBookId(googleBookId)
+                .title(volume.getTitle())
+                .volume(volume)
+                .readCount(0)
+                .build();
         book.setUser(user);
         book.setAddedAt(LocalDate.now(ZoneId.of("UTC")));
         book.setActive(true);
-        return bookMapper.toResponseDTO(bookRepository.save(book));
+        try {
+            return bookMapper.toResponseDTO(bookRepository.save(book));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request added the same volume since the check above
+            throw new BookAlreadyExistsException("Book already exists in your collection");
+        }
+    }
+
+    // Import many Google volumes at once. Each ID gets its own outcome, so one bad ID never fails the batch.
+    @Override
+    public List<BookImportResultDTO> saveBooksFromGoogle(List<String> googleBookIds, UserEntity user) {
+        // Drop duplicates while keeping the caller's order
+        Set<String> requestedIds = new LinkedHashSet<>();
+        for (String googleBookId : googleBookIds) {
+            requestedIds.add(googleBookId == null ? null : googleBookId.trim());
+        }
+
+        // Active/deleted status for the whole batch in one query
+        Set<String> validIds = requestedIds.stream()
+                .filter(id -> id != null && !id.isEmpty() && !"null".equalsIgnoreCase(id))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<String, Boolean> ownership = validIds.isEmpty() ? Map.of() : bookRepository
+                .findOwnershipByUserAndGoogleBookIdIn(user, validIds).stream()
+                .collect(Collectors.toMap(BookRepository.GoogleBookOwnership::getGoogleBookId,
+                        BookRepository.GoogleBookOwnership::getActive,
+                        (first, second) -> first || second));
+
+        List<String> newIds = validIds.stream()
+                .filter(id -> !ownership.containsKey(id))
+                .toList();
+
+        // Demo users can only fill up to the limit, the rest of the batch is rejected
+        long remaining = Long.MAX_VALUE;
+        if (isDemoUser(user)) {
+            remaining = Math.max(0, DEMO_BOOK_LIMIT - bookRepository.countByUserAndIsActiveTrue(user));
+        }
+        List<String> toImport = newIds.stream().limit(remaining).toList();
+
+        // Catalog lookups hit the database once and fetch missing volumes from Google concurrently
+        Map<String, ICatalogService.VolumeLookup> volumes = toImport.isEmpty()
+                ? Map.of()
+                : catalogService.getOrFetchVolumes(toImport);
+
+        LocalDate today = LocalDate.now(ZoneId.of("UTC"));
+        List<BookEntity> books = new ArrayList<>();
+        for (String googleBookId : toImport) {
+            CatalogVolumeEntity volume = volumes.get(googleBookId).volume();
+            if (volume != null) {
+                BookEntity book = BookEntity.builder()
+                        .googleBookId(googleBookId)
+                        .title(volume.getTitle())
+                        .volume(volume)
+                        .user(user)
+                        .addedAt(today)
+                        .readCount(0)
+                        .isActive(true)
+                        .build();
+                books.add(book);
+            }
+        }
+        Map<String, RuntimeException> insertFailures = bookBatchRepository.insertAll(books);
+        Map<String, BookEntity> inserted = books.stream()
+                .filter(book -> book.getId() != null)
+                .collect(Collectors.toMap(BookEntity::getGoogleBookId, book -> book));
+
+        // Volumes a concurrent request added after the ownership check were skipped by the
+        // insert, report them with their current status
+        Set<String> skippedIds = books.stream()
+                .map(BookEntity::getGoogleBookId)
+                .filter(id -> !inserted.containsKey(id) && !insertFailures.containsKey(id))
+                .collect(Collectors.toSet());
+        Map<String, Boolean> currentOwnership = new HashMap<>(ownership);
+        if (!skippedIds.isEmpty()) {
+            bookRepository.findOwnershipByUserAndGoogleBookIdIn(user, skippedIds).forEach(owned ->
+                    currentOwnership.merge(owned.getGoogleBookId(), owned.getActive(), Boolean::logicalOr));
+        }
+
+        List<BookImportResultDTO> results = new ArrayList<>();
+        for (String googleBookId : requestedIds) {
+            results.add(importResult(googleBookId, validIds, currentOwnership, toImport, volumes, inserted, insertFailures));
+        }
+        return results;
+    }
+
+    private BookImportResultDTO importResult(String googleBookId,
+                                             Set<String> validIds,
+                                             Map<String, Boolean> ownership,
+                                             List<String> toImport,
+                                             Map<String, ICatalogService.VolumeLookup> volumes,
+                                             Map<String, BookEntity> inserted,
+                                             Map<String, RuntimeException> insertFailures) {
+        if (!validIds.contains(googleBookId)) {
+            return new BookImportResultDTO(googleBookId, BookImportResultDTO.Status.INVALID_ID,
+                    "Google Book ID no puede ser nulo, vacío o la cadena 'null'.", null);
+        }
+        Boolean active = ownership.get(googleBookId);
+        if (Boolean.TRUE.equals(active)) {
+            return new BookImportResultDTO(googleBookId, BookImportResultDTO.Status.ALREADY_EXISTS,
+                    "Book already exists in your collection", null);
+        }
+        if (Boolean.FALSE.equals(active)) {
+            return new BookImportResultDTO(googleBookId, BookImportResultDTO.Status.PREVIOUSLY_DELETED,
+                    "Book was previously deleted. Please use activate endpoint.", null);
+        }
+        if (!toImport.contains(googleBookId)) {
+            return new BookImportResultDTO(googleBookId, BookImportResultDTO.Status.DEMO_LIMIT_EXCEEDED,
+                    "Demo user limit reached (maximum " + DEMO_BOOK_LIMIT + " books)", null);
+        }
+        BookEntity book = inserted.get(googleBookId);
+        if (book != null) {
+            return new BookImportResultDTO(googleBookId, BookImportResultDTO.Status.IMPORTED,
+                    null, bookMapper.toResponseDTO(book));
+        }
+        if (insertFailures.containsKey(googleBookId)) {
+            return new BookImportResultDTO(googleBookId, BookImportResultDTO.Status.FAILED,
+                    "Could not add the book to your collection", null);
+        }
+        RuntimeException error = volumes.get(googleBookId).error();
+        if (error instanceof BookNotFoundException) {
+            return new BookImportResultDTO(googleBookId, BookImportResultDTO.Status.NOT_FOUND, error.getMessage(), null);
+        }
+        return new BookImportResultDTO(googleBookId, BookImportResultDTO.Status.FAILED,
+                error == null ? "Unknown error" : error.getMessage(), null);
     }
 
     // Search for books using Google Books API
     @Override
     public List<BookResponseDTO> searchBooksFromGoogle(String query) {
+        String cacheKey = GoogleBooksQueries.searchKey(
+                GoogleBooksQueries.normalize(query), GoogleBooksQueries.SEARCH_MAX_RESULTS);
+
+        // Repeat queries skip both the Google call and the mapping below
+        List<BookResponseDTO> cached = bookSearchResultCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
         List<GoogleBookItem> googleResults = googleBooksIntegrationService.searchBooks(query);
 
         List<BookResponseDTO> finalResults = googleResults.stream()
-                .map(bookMapper::toEntity)
                 .map(bookMapper::toResponseDTO)
                 .toList();
+        bookSearchResultCache.put(cacheKey, finalResults);
         return finalResults;
     }
 
@@ -214,6 +427,34 @@ public class BookServiceImpl implements IBookService {
         }
     }
 
+    // Keep a user override only when it differs from the catalog value. Clearing a value the
+    // catalog has is stored as "" so the catalog's doesn't show through again.
+    private String overrideOf(String value, CatalogVolumeEntity volume, Function<CatalogVolumeEntity, String> field) {
+        if (volume == null) {
+            return value;
+        }
+        String catalogValue = field.apply(volume);
+        if (value == null || value.isBlank()) {
+            return catalogValue == null || catalogValue.isBlank() ? null : "";
+        }
+        return value.equals(catalogValue) ? null : value;
+    }
+
+    // Catalog tags sent back unchanged keep following the catalog; anything else, an empty
+    // list included, replaces them
+    private void updateTags(BookEntity book, List<String> tags) {
+        CatalogVolumeEntity volume = book.getVolume();
+        boolean overridden = volume == null || !tags.equals(volume.getTags() == null ? List.of() : volume.getTags());
+        book.setTagsOverridden(volume != null && overridden);
+        if (book.getTags() == null) {
+            book.setTags(new ArrayList<>());
+        }
+        book.getTags().clear();
+        if (overridden) {
+            book.getTags().addAll(tags);
+        }
+    }
+
     // isDemoUser
     private boolean isDemoUser(UserEntity user) {
         return "demo@tomevault.com".equals(user.getEmail());
@@ -0,0 +1,155 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
+import com.cristianml.TomeVault.mappers.BookMapper;
+import com.cristianml.TomeVault.repositories.CatalogVolumeRepository;
+import com.cristianml.TomeVault.services.ICatalogService;
+import com.cristianml.TomeVault.services.IGoogleBooksIntegrationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+// Maintains the shared catalog of Google volumes referenced by users' books
+@Slf4j
+@Service
+public class CatalogServiceImpl implements ICatalogService {
+
+    private final CatalogVolumeRepository catalogVolumeRepository;
+    private final IGoogleBooksIntegrationService googleBooksIntegrationService;
+    private final BookMapper bookMapper;
+    private final TransactionTemplate requiresNewTransaction;
+    private final int fetchFanOut; // Max concurrent Google fetches per batch
+    private final Duration refreshAfter; // Age at which a cataloged volume is read from Google again
+
+    public CatalogServiceImpl(CatalogVolumeRepository catalogVolumeRepository,
+                              IGoogleBooksIntegrationService googleBooksIntegrationService,
+                              BookMapper bookMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.books.batch-import.fan-out:8}") int fetchFanOut,
+                              @Value("${app.books.catalog.refresh-after:30d}") Duration refreshAfter) {
+        this.catalogVolumeRepository = catalogVolumeRepository;
+        this.googleBooksIntegrationService = googleBooksIntegrationService;
+        this.bookMapper = bookMapper;
+        this.fetchFanOut = fetchFanOut;
+        this.refreshAfter = refreshAfter;
+        // Catalog rows are committed on their own so a concurrent insert of the same volume
+        // doesn't roll back the caller's transaction
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Return the cataloged volume, calling Google the first time a volume is seen and again
+    // once its row is older than refreshAfter
+    @Override
+    public CatalogVolumeEntity getOrFetchVolume(String googleBookId) {
+        return catalogVolumeRepository.findById(googleBookId)
+                .map(volume -> isStale(volume) ? refresh(volume) : volume)
+                .orElseGet(() -> fetchAndStore(googleBookId));
+    }
+
+    // Load every cataloged volume in one query, then fetch the missing and stale ones from
+    // Google concurrently on virtual threads, never more than fetchFanOut at a time
+    @Override
+    public Map<String, VolumeLookup> getOrFetchVolumes(Collection<String> googleBookIds) {
+        Map<String, VolumeLookup> lookups = new HashMap<>();
+        Map<String, CatalogVolumeEntity> stale = new HashMap<>();
+        for (CatalogVolumeEntity volume : catalogVolumeRepository.findAllById(googleBookIds)) {
+            if (isStale(volume)) {
+                stale.put(volume.getGoogleBookId(), volume);
+            } else {
+                lookups.put(volume.getGoogleBookId(), new VolumeLookup(volume, null));
+            }
+        }
+
+        List<String> toFetch = googleBookIds.stream()
+                .filter(id -> !lookups.containsKey(id))
+                .toList();
+        if (toFetch.isEmpty()) {
+            return lookups;
+        }
+
+        Semaphore permits = new Semaphore(fetchFanOut);
+        Map<String, Future<CatalogVolumeEntity>> fetches = new HashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String googleBookId : toFetch) {
+                CatalogVolumeEntity stored = stale.get(googleBookId);
+                fetches.put(googleBookId, executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return stored != null ? refresh(stored) : fetchAndStore(googleBookId);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        // The executor has been closed, so every future is complete here
+        for (Map.Entry<String, Future<CatalogVolumeEntity>> fetch : fetches.entrySet()) {
+            lookups.put(fetch.getKey(), toLookup(fetch.getValue()));
+        }
+        return lookups;
+    }
+
+    private VolumeLookup toLookup(Future<CatalogVolumeEntity> fetch) {
+        try {
+            return new VolumeLookup(fetch.get(), null);
+        } catch (ExecutionException e) {
+            RuntimeException error = e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new IllegalStateException(e.getCause());
+            return new VolumeLookup(null, error);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new VolumeLookup(null, new IllegalStateException("Interrupted while fetching volume", e));
+        }
+    }
+
+    private boolean isStale(CatalogVolumeEntity volume) {
+        return volume.getFetchedAt() == null
+                || volume.getFetchedAt().isBefore(LocalDateTime.now(ZoneOffset.UTC).minus(refreshAfter));
+    }
+
+    // Rewrites the row with what Google returns now. Metadata a few days older is better than
+    // failing the add, so the stored row is kept whenever Google can't answer.
+    private CatalogVolumeEntity refresh(CatalogVolumeEntity stored) {
+        GoogleBookItem googleBook;
+        try {
+            googleBook = googleBooksIntegrationService.getBookByIdForImport(stored.getGoogleBookId());
+        } catch (RuntimeException e) {
+            log.debug("Keeping cataloged volume {}, refresh failed: {}", stored.getGoogleBookId(), e.getMessage());
+            return stored;
+        }
+        CatalogVolumeEntity volume = bookMapper.toCatalogVolume(googleBook);
+        return requiresNewTransaction.execute(status -> catalogVolumeRepository.save(volume));
+    }
+
+    private CatalogVolumeEntity fetchAndStore(String googleBookId) {
+        GoogleBookItem googleBook = googleBooksIntegrationService.getBookByIdForImport(googleBookId);
+        CatalogVolumeEntity volume = bookMapper.toCatalogVolume(googleBook);
+        try {
+            return requiresNewTransaction.execute(status -> catalogVolumeRepository.save(volume));
+        } catch (DataIntegrityViolationException e) {
+            // Another request cataloged the same volume first, use its row
+            return catalogVolumeRepository.findById(googleBookId).orElseThrow(() -> e);
+        }
+    }
+}
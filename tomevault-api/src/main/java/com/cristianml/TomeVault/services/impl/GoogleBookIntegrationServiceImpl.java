@@ -1,25 +1,59 @@
 package com.cristianml.TomeVault.services.impl;
 
 import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
-import com.cristianml.TomeVault.dtos.google.GoogleBooksResponse;
 import com.cristianml.TomeVault.exceptions.BookNotFoundException;
+import com.cristianml.TomeVault.exceptions.GoogleBooksQuotaExceededException;
+import com.cristianml.TomeVault.exceptions.GoogleBooksUnavailableException;
 import com.cristianml.TomeVault.services.IGoogleBooksIntegrationService;
+import com.cristianml.TomeVault.utilities.GoogleBooksJsonReader;
+import com.cristianml.TomeVault.utilities.GoogleBooksQueries;
+import com.cristianml.TomeVault.utilities.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.function.Supplier;
 
 // Handles integration with Google Books API for searching and fetching book data
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class GoogleBookIntegrationServiceImpl implements IGoogleBooksIntegrationService {
 
     private final RestTemplate restTemplate;
+    private final Cache<String, GoogleBookItem> googleVolumeCache; // Volume metadata rarely changes, see GoogleBooksCacheConfig
+    private final Cache<String, List<GoogleBookItem>> googleSearchCache; // Short-lived, keyed by normalized query
+    private final Cache<String, Boolean> googleMissingVolumeCache; // IDs Google recently reported as unknown
+    private final Cache<String, GoogleBookItem> googleStaleVolumeCache; // Fallbacks while Google is unavailable
+    private final Cache<String, List<GoogleBookItem>> googleStaleSearchCache;
+    private final CircuitBreaker googleBooksCircuitBreaker;
+    private final Bulkhead googleBooksBulkhead;
+    private final GoogleBooksRateLimiter googleBooksRateLimiter; // Keeps us within the API key quota
+    private final MeterRegistry meterRegistry;
+
+    // Concurrent identical lookups share a single outbound call
+    private final SingleFlight<String, GoogleBookItem> volumeFlights = new SingleFlight<>();
+    private final SingleFlight<String, List<GoogleBookItem>> searchFlights = new SingleFlight<>();
 
     // Google Books API base URL from application properties
     @Value("${app.google-books.url}")
@@ -29,40 +63,187 @@ public class GoogleBookIntegrationServiceImpl implements IGoogleBooksIntegration
     @Value("${app.google-books.key}")
     private String apiKey;
 
+    // Expose how many calls were answered by another caller's in-flight request
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("google.books.coalesced", volumeFlights, SingleFlight::getCoalescedCount)
+                .tag("operation", "volume")
+                .description("Google Books lookups served by an identical in-flight request")
+                .register(meterRegistry);
+        FunctionCounter.builder("google.books.coalesced", searchFlights, SingleFlight::getCoalescedCount)
+                .tag("operation", "search")
+                .description("Google Books searches served by an identical in-flight request")
+                .register(meterRegistry);
+    }
+
     // Search for books using Google Books API with a query string
     @Override
     public List<GoogleBookItem> searchBooks(String query) {
-        String url = buildSearchUrl(query);
-        GoogleBooksResponse response = restTemplate.getForObject(url, GoogleBooksResponse.class);
+        String normalizedQuery = GoogleBooksQueries.normalize(query);
+        String cacheKey = GoogleBooksQueries.searchKey(normalizedQuery, GoogleBooksQueries.SEARCH_MAX_RESULTS);
 
-        // Simple debug to check result count
-        int itemCount = 0;
-        if (response != null && response.getItems() != null) {
-            itemCount = response.getItems().size();
+        // Repeat searches within the TTL are answered without calling Google
+        List<GoogleBookItem> cached = googleSearchCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
         }
 
-        return Optional.ofNullable(response)
-                .map(GoogleBooksResponse::getItems)
-                .orElse(Collections.emptyList());
+        return searchFlights.execute(cacheKey, () -> {
+            // A flight that finished just before ours may already have filled the cache
+            List<GoogleBookItem> fresh = googleSearchCache.getIfPresent(cacheKey);
+            if (fresh != null) {
+                return fresh;
+            }
+            GoogleResponse<List<GoogleBookItem>> response = callGoogle(() -> fetchSearch(normalizedQuery),
+                    () -> googleStaleSearchCache.getIfPresent(cacheKey),
+                    GoogleBooksRateLimiter.Operation.SEARCH, false);
+            if (response.fresh()) {
+                googleSearchCache.put(cacheKey, response.value());
+                googleStaleSearchCache.put(cacheKey, response.value());
+            }
+            return response.value();
+        });
     }
 
     // Get detailed information for a specific book by its Google Books ID
     @Override
     public GoogleBookItem getBookById(String googleBookId) throws BookNotFoundException {
+        return getBookById(googleBookId, false);
+    }
+
+    // Same lookup for adding a book to a library, allowed to use the quota reserved for imports
+    @Override
+    public GoogleBookItem getBookByIdForImport(String googleBookId) throws BookNotFoundException {
+        return getBookById(googleBookId, true);
+    }
+
+    private GoogleBookItem getBookById(String googleBookId, boolean importPriority) {
         // Validate the Google Book ID before making the API call
         if (googleBookId == null || googleBookId.trim().isEmpty() || "null".equalsIgnoreCase(googleBookId.trim())) {
             throw new IllegalArgumentException("Google Book ID no puede ser nulo, vacío o la cadena 'null'.");
         }
 
+        // Serve from the in-process cache when the volume was fetched recently
+        GoogleBookItem cached = googleVolumeCache.getIfPresent(googleBookId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Dead IDs seen recently are rejected without an outbound call
+        if (googleMissingVolumeCache.getIfPresent(googleBookId) != null) {
+            meterRegistry.counter("google.books.missing.absorbed").increment();
+            throw new BookNotFoundException("Book not found in Google Book.");
+        }
+
+        return volumeFlights.execute(googleBookId, () -> {
+            // A flight that finished just before ours may already have filled the cache
+            GoogleBookItem fresh = googleVolumeCache.getIfPresent(googleBookId);
+            if (fresh != null) {
+                return fresh;
+            }
+            GoogleResponse<GoogleBookItem> response;
+            try {
+                response = callGoogle(() -> fetchBookById(googleBookId),
+                        () -> googleStaleVolumeCache.getIfPresent(googleBookId),
+                        GoogleBooksRateLimiter.Operation.DETAIL, importPriority);
+            } catch (BookNotFoundException e) {
+                googleMissingVolumeCache.put(googleBookId, Boolean.TRUE);
+                meterRegistry.counter("google.books.missing.recorded").increment();
+                throw e;
+            }
+            if (response.fresh()) {
+                googleVolumeCache.put(googleBookId, response.value());
+                googleStaleVolumeCache.put(googleBookId, response.value());
+            }
+            return response.value();
+        });
+    }
+
+    // Run an outbound call through the bulkhead, circuit breaker and rate limiter. When Google is
+    // unavailable (quota exhausted, breaker open, bulkhead full, timeout, 5xx or 429) fall back
+    // to the last known good value.
+    private <T> GoogleResponse<T> callGoogle(Supplier<T> call, Supplier<T> staleFallback,
+                             GoogleBooksRateLimiter.Operation operation, boolean importPriority) {
+        // The quota is only spent once the bulkhead and breaker let the call through
+        Supplier<T> guarded = Bulkhead.decorateSupplier(googleBooksBulkhead,
+                CircuitBreaker.decorateSupplier(googleBooksCircuitBreaker, () -> {
+                    googleBooksRateLimiter.acquire(operation, importPriority);
+                    return call.get();
+                }));
+        String operationName = operation.name().toLowerCase(Locale.ROOT);
+        try {
+            T result = guarded.get();
+            googleBooksRateLimiter.onSuccess();
+            return new GoogleResponse<>(result, true);
+        } catch (GoogleBooksQuotaExceededException e) {
+            T stale = staleFallback.get();
+            if (stale != null) {
+                meterRegistry.counter("google.books.stale.served", "operation", operationName).increment();
+                return new GoogleResponse<>(stale, false);
+            }
+            throw e;
+        } catch (CallNotPermittedException | BulkheadFullException | ResourceAccessException
+                 | HttpServerErrorException | HttpClientErrorException.TooManyRequests e) {
+            if (e instanceof HttpClientErrorException.TooManyRequests tooManyRequests) {
+                googleBooksRateLimiter.onThrottled(retryAfter(tooManyRequests));
+            }
+            T stale = staleFallback.get();
+            if (stale != null) {
+                meterRegistry.counter("google.books.stale.served", "operation", operationName).increment();
+                return new GoogleResponse<>(stale, false);
+            }
+            log.warn("Google Books {} call failed with no stale fallback: {}", operationName, e.getMessage());
+            throw new GoogleBooksUnavailableException("Google Books no está disponible en este momento. Inténtelo más tarde.", e);
+        }
+    }
+
+    // A stale fallback is returned as is: caching it again would renew its TTL and keep an
+    // outdated value alive for as long as Google stays down
+    private record GoogleResponse<T>(T value, boolean fresh) {
+    }
+
+    // Retry-After sent with a 429, in seconds, if Google provided one
+    private Duration retryAfter(HttpClientErrorException.TooManyRequests e) {
+        HttpHeaders headers = e.getResponseHeaders();
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    // Call Google Books search endpoint
+    private List<GoogleBookItem> fetchSearch(String normalizedQuery) {
+        String url = buildSearchUrl(normalizedQuery);
+        // Stream the "items" array straight into GoogleBookItem, skipping everything else
+        List<GoogleBookItem> items = restTemplate.execute(url, HttpMethod.GET, null,
+                response -> GoogleBooksJsonReader.readItems(response.getBody()));
+
+        return items == null ? Collections.emptyList() : List.copyOf(items);
+    }
+
+    // Call Google Books volume endpoint for a single ID
+    private GoogleBookItem fetchBookById(String googleBookId) {
         // Build URL for fetching a specific book by ID
         String url = UriComponentsBuilder.fromHttpUrl(apiUrl)
                 .pathSegment(googleBookId) // Append the book ID as path segment
                 .queryParam("key", apiKey) // Add API key for authentication
+                .queryParam("fields", GoogleBooksJsonReader.VOLUME_FIELDS) // Only download what we map
                 .build()
                 .toUriString();
 
         // Fetch the book data from Google Books API
-        GoogleBookItem googleBook = restTemplate.getForObject(url, GoogleBookItem.class);
+        GoogleBookItem googleBook;
+        try {
+            googleBook = restTemplate.execute(url, HttpMethod.GET, null,
+                    response -> GoogleBooksJsonReader.readItem(response.getBody()));
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new BookNotFoundException("Book not found in Google Book.");
+        }
 
         // Verify we got a valid response with matching ID
         if (googleBook == null || googleBook.getId() == null || !googleBook.getId().equals(googleBookId)) {
@@ -77,7 +258,8 @@ public class GoogleBookIntegrationServiceImpl implements IGoogleBooksIntegration
         return UriComponentsBuilder.fromHttpUrl(apiUrl)
                 .queryParam("q", query) // Search query
                 .queryParam("key", apiKey) // API key
-                .queryParam("maxResults", 20) // Limit to 20 results per request
+                .queryParam("maxResults", GoogleBooksQueries.SEARCH_MAX_RESULTS) // Limit to 20 results per request
+                .queryParam("fields", GoogleBooksJsonReader.SEARCH_FIELDS) // Skip sale, access and layer info
                 //.queryParam("langRestrict", "es") // Uncomment to restrict to Spanish language books
                 .build()
                 .toUriString();
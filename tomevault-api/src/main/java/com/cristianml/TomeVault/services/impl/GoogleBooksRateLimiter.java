@@ -0,0 +1,152 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.exceptions.GoogleBooksQuotaExceededException;
+import com.cristianml.TomeVault.security.config.CustomUserDetails;
+import com.cristianml.TomeVault.utilities.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// Keeps outbound Google Books traffic inside our API key quota.
+// - Search and detail lookups have separate per-minute budgets, plus a shared daily budget.
+// - Imports (saveBookFromGoogle, batch import) may use the whole budget; public traffic must
+//   leave a reserved share untouched, so anonymous searches can't starve paying users.
+// - Public callers get their own small bucket, keyed by user id or client IP.
+// - A 429 from Google pauses all calls with exponential backoff, honoring Retry-After.
+@Slf4j
+@Component
+public class GoogleBooksRateLimiter {
+
+    public enum Operation { SEARCH, DETAIL }
+
+    private final TokenBucket dailyBucket;
+    private final TokenBucket searchBucket;
+    private final TokenBucket detailBucket;
+    private final Cache<String, TokenBucket> callerBuckets;
+    private final long userPerMinute;
+    private final long anonymousPerMinute;
+    private final double importReserve;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final MeterRegistry meterRegistry;
+
+    // Adaptive backoff state after Google answers 429
+    private Duration currentBackoff = Duration.ZERO;
+    private long pausedUntilNanos = System.nanoTime();
+
+    public GoogleBooksRateLimiter(
+            @Value("${app.google-books.rate-limit.daily:1000}") long dailyLimit,
+            @Value("${app.google-books.rate-limit.search-per-minute:60}") long searchPerMinute,
+            @Value("${app.google-books.rate-limit.detail-per-minute:120}") long detailPerMinute,
+            @Value("${app.google-books.rate-limit.user-per-minute:30}") long userPerMinute,
+            @Value("${app.google-books.rate-limit.anonymous-per-minute:10}") long anonymousPerMinute,
+            @Value("${app.google-books.rate-limit.import-reserve:0.2}") double importReserve,
+            @Value("${app.google-books.rate-limit.base-backoff:1s}") Duration baseBackoff,
+            @Value("${app.google-books.rate-limit.max-backoff:5m}") Duration maxBackoff,
+            MeterRegistry meterRegistry) {
+        this.dailyBucket = new TokenBucket(dailyLimit, Duration.ofDays(1));
+        this.searchBucket = new TokenBucket(searchPerMinute, Duration.ofMinutes(1));
+        this.detailBucket = new TokenBucket(detailPerMinute, Duration.ofMinutes(1));
+        this.callerBuckets = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.userPerMinute = userPerMinute;
+        this.anonymousPerMinute = anonymousPerMinute;
+        this.importReserve = importReserve;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Take a permit for one outbound call or throw GoogleBooksQuotaExceededException
+    public void acquire(Operation operation, boolean importPriority) {
+        long pausedFor = remainingPauseNanos();
+        if (pausedFor > 0) {
+            reject(operation, "backoff", Duration.ofNanos(pausedFor));
+        }
+
+        TokenBucket callerBucket = null;
+        if (!importPriority) {
+            callerBucket = callerBucket();
+            if (!callerBucket.tryConsume()) {
+                reject(operation, "caller", callerBucket.timeToNextToken());
+            }
+        }
+
+        double reserve = importPriority ? 0 : importReserve;
+        TokenBucket operationBucket = operation == Operation.SEARCH ? searchBucket : detailBucket;
+        if (!operationBucket.tryConsume(reserve)) {
+            refund(callerBucket);
+            reject(operation, "operation", operationBucket.timeToNextToken());
+        }
+        if (!dailyBucket.tryConsume(reserve)) {
+            refund(callerBucket);
+            operationBucket.refund();
+            reject(operation, "daily", dailyBucket.timeToNextToken());
+        }
+    }
+
+    // Google answered normally, forget any previous backoff
+    public synchronized void onSuccess() {
+        currentBackoff = Duration.ZERO;
+    }
+
+    // Google answered 429: pause outbound calls, doubling the pause on each consecutive 429
+    public synchronized void onThrottled(Duration retryAfter) {
+        Duration next = currentBackoff.isZero() ? baseBackoff : currentBackoff.multipliedBy(2);
+        if (next.compareTo(maxBackoff) > 0) {
+            next = maxBackoff;
+        }
+        if (retryAfter != null && retryAfter.compareTo(next) > 0) {
+            next = retryAfter;
+        }
+        currentBackoff = next;
+        pausedUntilNanos = System.nanoTime() + next.toNanos();
+        meterRegistry.counter("google.books.ratelimit.throttled").increment();
+        log.warn("Google Books returned 429, pausing outbound calls for {}", next);
+    }
+
+    private synchronized long remainingPauseNanos() {
+        return pausedUntilNanos - System.nanoTime();
+    }
+
+    private void reject(Operation operation, String reason, Duration retryAfter) {
+        meterRegistry.counter("google.books.ratelimit.rejected",
+                "operation", operation.name().toLowerCase(Locale.ROOT), "reason", reason).increment();
+        throw new GoogleBooksQuotaExceededException(
+                "Demasiadas consultas a Google Books. Inténtelo de nuevo en unos segundos.",
+                Math.max(1, (long) Math.ceil(retryAfter.toMillis() / 1000.0)));
+    }
+
+    private void refund(TokenBucket bucket) {
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    // Authenticated users are keyed by id, anonymous traffic by client IP
+    private TokenBucket callerBucket() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails details) {
+            return callerBuckets.get("user:" + details.getId(),
+                    key -> new TokenBucket(userPerMinute, Duration.ofMinutes(1)));
+        }
+        String clientIp = "unknown";
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            clientIp = attributes.getRequest().getRemoteAddr();
+        }
+        return callerBuckets.get("ip:" + clientIp,
+                key -> new TokenBucket(anonymousPerMinute, Duration.ofMinutes(1)));
+    }
+}
@@ -0,0 +1,224 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+import com.cristianml.TomeVault.entities.BookEntity;
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.exceptions.ResourceNotFoundException;
+import com.cristianml.TomeVault.mappers.BookMapper;
+import com.cristianml.TomeVault.repositories.BookBatchRepository;
+import com.cristianml.TomeVault.repositories.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Optional write-behind for the read counter endpoints. Taps only change a per-book delta in
+// memory; a background thread writes all deltas in one UPDATE every flush interval and once
+// more on shutdown. Responses show the last stored value plus the pending delta, so they are
+// immediate, but a crash loses up to one interval of taps.
+@Slf4j
+@Service
+public class ReadCountBuffer {
+
+    private final BookRepository bookRepository;
+    private final BookBatchRepository bookBatchRepository;
+    private final BookMapper bookMapper;
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int maxPendingBooks;
+    private final Counter flushedCounter;
+    private final TransactionTemplate requiresNewTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    // Updated through compute() only, so each book's check-and-update is atomic
+    private final ConcurrentHashMap<Long, PendingReadCount> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    // What Postgres last returned, the unflushed taps and the book as last loaded.
+    // snapshot is null after the book was edited elsewhere and must be reloaded.
+    private record PendingReadCount(long ownerId, int stored, int delta, BookResponseDTO snapshot) {
+
+        int current() {
+            return Math.max(0, stored + delta);
+        }
+    }
+
+    public ReadCountBuffer(BookRepository bookRepository,
+                           BookBatchRepository bookBatchRepository,
+                           BookMapper bookMapper,
+                           MeterRegistry meterRegistry,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.books.read-count.write-behind.enabled:false}") boolean enabled,
+                           @Value("${app.books.read-count.write-behind.flush-interval:2s}") Duration flushInterval,
+                           @Value("${app.books.read-count.write-behind.max-pending-books:10000}") int maxPendingBooks) {
+        this.bookRepository = bookRepository;
+        this.bookBatchRepository = bookBatchRepository;
+        this.bookMapper = bookMapper;
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.maxPendingBooks = maxPendingBooks;
+        this.flushedCounter = Counter.builder("books.read.flushed")
+                .description("Buffered read counter deltas written to the database")
+                .register(meterRegistry);
+        Gauge.builder("books.read.pending", pending, Map::size)
+                .description("Books with read counter taps held in memory")
+                .register(meterRegistry);
+        // Flushes commit on their own: deltas leave the buffer once written, so a flush run by a
+        // tap must not be rolled back with the tap's caller
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-count-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs before the DataSource closes since this bean depends on it
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public BookResponseDTO increment(Long bookId, UserEntity user) {
+        return apply(bookId, user, 1);
+    }
+
+    // Same zero floor as BookBatchRepository.addToReadCount, checked against the merged value
+    public BookResponseDTO decrement(Long bookId, UserEntity user) {
+        return apply(bookId, user, -1);
+    }
+
+    // The next tap reloads the book (title, progress reset...) and keeps its pending delta
+    public void invalidate(Long bookId) {
+        pending.computeIfPresent(bookId, (id, entry) ->
+                new PendingReadCount(entry.ownerId(), entry.stored(), entry.delta(), null));
+    }
+
+    // Writes every pending delta in one statement. Taps that arrive meanwhile are added on top
+    // and stay buffered; books with nothing left to write are dropped so they get reloaded.
+    public synchronized void flush() {
+        Map<Long, Integer> written = new HashMap<>();
+        pending.forEach((bookId, entry) -> {
+            if (entry.delta() != 0) {
+                written.put(bookId, entry.delta());
+            }
+        });
+        Map<Long, Integer> stored = requiresNewTransaction.execute(status -> bookBatchRepository.addToReadCounts(written));
+
+        for (Long bookId : List.copyOf(pending.keySet())) {
+            int flushedDelta = written.getOrDefault(bookId, 0);
+            Integer storedValue = stored.get(bookId);
+            pending.computeIfPresent(bookId, (id, entry) -> {
+                if (flushedDelta != 0 && storedValue == null) {
+                    return null; // book was removed
+                }
+                int remaining = entry.delta() - flushedDelta;
+                if (remaining == 0) {
+                    return null;
+                }
+                return new PendingReadCount(entry.ownerId(),
+                        storedValue != null ? storedValue : entry.stored(), remaining, entry.snapshot());
+            });
+        }
+        flushedCounter.increment(written.size());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Deltas stay buffered and are retried on the next run
+            log.warn("Could not flush {} buffered read counts: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    private BookResponseDTO apply(Long bookId, UserEntity user, int step) {
+        // Bounds memory and how much a crash can lose
+        if (!pending.containsKey(bookId) && pending.size() >= maxPendingBooks) {
+            flush();
+        }
+        while (true) {
+            PendingReadCount known = pending.get(bookId);
+            PendingReadCount loaded = known == null || known.snapshot() == null ? load(bookId) : null;
+            boolean[] retry = {false};
+            PendingReadCount updated = pending.compute(bookId, (id, current) -> {
+                PendingReadCount entry;
+                if (current == null) {
+                    entry = loaded;
+                } else if (current.snapshot() == null && loaded != null) {
+                    entry = new PendingReadCount(current.ownerId(), loaded.stored(), current.delta(), loaded.snapshot());
+                } else {
+                    entry = current;
+                }
+                // Flushed away or invalidated since we looked: load again
+                if (entry == null || entry.snapshot() == null) {
+                    retry[0] = true;
+                    return current;
+                }
+                if (entry.ownerId() != user.getId()) {
+                    throw new ResourceNotFoundException("Book not found or not owned by user with ID: " + bookId);
+                }
+                if (step < 0 && entry.current() == 0) {
+                    throw new IllegalArgumentException("Cannot decrement read count below zero for book ID: " + bookId);
+                }
+                return new PendingReadCount(entry.ownerId(), entry.stored(), entry.delta() + step, entry.snapshot());
+            });
+            if (!retry[0]) {
+                return withReadCount(updated.snapshot(), updated.current());
+            }
+        }
+    }
+
+    // Taps don't run in a transaction, the snapshot's lazy volume and tags are read in this one
+    private PendingReadCount load(Long bookId) {
+        return readOnlyTransaction.execute(status -> {
+            BookEntity book = bookRepository.findById(bookId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Book not found with ID: " + bookId));
+            int stored = book.getReadCount() == null ? 0 : book.getReadCount();
+            return new PendingReadCount(book.getUser().getId(), stored, 0, bookMapper.toResponseDTO(book));
+        });
+    }
+
+    // Snapshots are shared between taps, each response gets its own copy
+    private static BookResponseDTO withReadCount(BookResponseDTO snapshot, int readCount) {
+        return new BookResponseDTO(snapshot.getId(), snapshot.getGoogleBookId(), snapshot.getTitle(),
+                snapshot.getAuthor(), snapshot.getDescription(), snapshot.getThumbnail(), snapshot.getTags(),
+                snapshot.getAddedAt(), snapshot.getFinishedAt(), readCount, snapshot.isActive());
+    }
+}
@@ -0,0 +1,120 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.exceptions.InvalidRefreshTokenException;
+import com.cristianml.TomeVault.repositories.RefreshTokenRepository;
+import com.cristianml.TomeVault.security.entities.RefreshTokenEntity;
+import com.cristianml.TomeVault.services.IRefreshTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+// Rotating, single-use refresh tokens. Clients get an opaque random token, the database
+// only keeps its SHA-256. Presenting a token that was already exchanged means a copy
+// leaked, so its whole family is revoked and the user has to log in again.
+@Slf4j
+@Service
+public class RefreshTokenServiceImpl implements IRefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${security.jwt.refresh-token.ttl:14d}") Duration refreshTokenTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.meterRegistry = meterRegistry;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    @Override
+    @Transactional
+    public String issue(UserEntity user) {
+        LocalDateTime now = LocalDateTime.now();
+        // Housekeeping: expired tokens are useless even for reuse detection
+        refreshTokenRepository.deleteExpiredByUserId(user.getId(), now);
+        return create(user, UUID.randomUUID().toString(), now);
+    }
+
+    // Failed exchanges still commit, so a detected reuse stays revoked
+    @Override
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        RefreshTokenEntity current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> rejected("unknown"));
+        LocalDateTime now = LocalDateTime.now();
+
+        if (current.isRevoked()) {
+            throw rejected("revoked");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw rejected("expired");
+        }
+        // Already exchanged, or exchanged concurrently a moment ago
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            log.warn("Refresh token reuse detected for user {}, family {} revoked",
+                    current.getUser().getId(), current.getFamilyId());
+            throw rejected("reused");
+        }
+
+        UserEntity user = current.getUser();
+        if (!user.isEnabled() || user.isDeleted()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw rejected("account_inactive");
+        }
+
+        meterRegistry.counter("auth.refresh", "result", "rotated").increment();
+        return new Rotation(user, create(user, current.getFamilyId(), now));
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId);
+    }
+
+    private String create(UserEntity user, String familyId, LocalDateTime now) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshTokenEntity.builder()
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .user(user)
+                .createdAt(now)
+                .expiresAt(now.plus(refreshTokenTtl))
+                .build());
+        return token;
+    }
+
+    private InvalidRefreshTokenException rejected(String reason) {
+        meterRegistry.counter("auth.refresh", "result", reason).increment();
+        return new InvalidRefreshTokenException("Refresh token invalid: " + reason);
+    }
+
+    // Tokens carry 256 random bits, so a plain SHA-256 is enough, no salt or stretching needed
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
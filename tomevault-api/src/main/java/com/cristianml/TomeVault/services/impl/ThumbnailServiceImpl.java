@@ -0,0 +1,327 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
+import com.cristianml.TomeVault.exceptions.ResourceNotFoundException;
+import com.cristianml.TomeVault.exceptions.ThumbnailUnavailableException;
+import com.cristianml.TomeVault.repositories.CatalogVolumeRepository;
+import com.cristianml.TomeVault.services.IThumbnailService;
+import com.cristianml.TomeVault.utilities.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Fetches book covers from Google once and keeps them in a content-addressed cache on disk:
+//   blobs/<sha256>        image bytes, shared by every volume with the same cover
+//   refs/<googleBookId>   "<sha256>\n<content type>"
+// Blobs are evicted least-recently-used first once the cache exceeds its byte budget.
+// Only volumes in the catalog (books someone saved) are fetched, so this public endpoint
+// can't be used to make the server download arbitrary covers.
+@Slf4j
+@Service
+public class ThumbnailServiceImpl implements IThumbnailService {
+
+    private static final Pattern GOOGLE_BOOK_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final CatalogVolumeRepository catalogVolumeRepository;
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Path blobsDir;
+    private final Path refsDir;
+    private final long maxCacheBytes;
+    private final int maxImageBytes;
+    private final long evictionGraceNanos;
+
+    // googleBookId -> cached file, so hot covers don't read their ref file on every request
+    private final Cache<String, ThumbnailFile> refCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+    private final SingleFlight<String, ThumbnailFile> downloads = new SingleFlight<>();
+
+    // Blob hash -> size in access order, guarded by this
+    private final LinkedHashMap<String, Long> blobSizes = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    // Evicted blob hash -> System.nanoTime() of its eviction, oldest first, guarded by this.
+    // A response may have been handed the path just before, so the file stays on disk for
+    // the grace period; it no longer counts towards the budget.
+    private final LinkedHashMap<String, Long> evicted = new LinkedHashMap<>();
+
+    public ThumbnailServiceImpl(CatalogVolumeRepository catalogVolumeRepository,
+                                RestTemplate restTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.thumbnails.cache-dir:${java.io.tmpdir}/tomevault-thumbnails}") Path cacheDir,
+                                @Value("${app.thumbnails.max-cache-bytes:268435456}") long maxCacheBytes,
+                                @Value("${app.thumbnails.max-image-bytes:1048576}") int maxImageBytes,
+                                @Value("${app.thumbnails.eviction-grace:60s}") Duration evictionGrace) {
+        this.catalogVolumeRepository = catalogVolumeRepository;
+        this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
+        this.blobsDir = cacheDir.resolve("blobs");
+        this.refsDir = cacheDir.resolve("refs");
+        this.maxCacheBytes = maxCacheBytes;
+        this.maxImageBytes = maxImageBytes;
+        this.evictionGraceNanos = evictionGrace.toNanos();
+    }
+
+    // Rebuild the LRU index from disk, oldest files first
+    @PostConstruct
+    public void loadIndex() throws IOException {
+        Files.createDirectories(blobsDir);
+        Files.createDirectories(refsDir);
+        try (Stream<Path> blobs = Files.list(blobsDir)) {
+            List<Path> ordered = blobs
+                    .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                    .sorted(Comparator.comparing(this::lastModified))
+                    .toList();
+            synchronized (this) {
+                for (Path blob : ordered) {
+                    long size = Files.size(blob);
+                    blobSizes.put(blob.getFileName().toString(), size);
+                    totalBytes += size;
+                }
+            }
+        }
+        Gauge.builder("thumbnails.cache.bytes", this, service -> service.cachedBytes()).register(meterRegistry);
+    }
+
+    @Override
+    public ThumbnailFile getThumbnail(String googleBookId) {
+        if (googleBookId == null || !GOOGLE_BOOK_ID.matcher(googleBookId).matches()) {
+            throw new IllegalArgumentException("Google Book ID inválido.");
+        }
+
+        ThumbnailFile cached = findCached(googleBookId);
+        if (cached != null) {
+            meterRegistry.counter("thumbnails.requests", "result", "hit").increment();
+            return cached;
+        }
+
+        meterRegistry.counter("thumbnails.requests", "result", "miss").increment();
+        return downloads.execute(googleBookId, () -> download(googleBookId));
+    }
+
+    private ThumbnailFile findCached(String googleBookId) {
+        ThumbnailFile file = refCache.getIfPresent(googleBookId);
+        if (file == null) {
+            file = readRef(googleBookId);
+        }
+        if (file == null || !touch(file.contentHash())) {
+            // Blob was evicted, the cover has to be downloaded again
+            refCache.invalidate(googleBookId);
+            return null;
+        }
+        refCache.put(googleBookId, file);
+        return file;
+    }
+
+    private ThumbnailFile download(String googleBookId) {
+        URI source = sourceUrl(googleBookId);
+        DownloadedImage downloaded;
+        try {
+            downloaded = restTemplate.execute(source, HttpMethod.GET, null,
+                    response -> readImage(googleBookId, response));
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new ResourceNotFoundException("Thumbnail not found for book " + googleBookId);
+        } catch (RestClientException e) {
+            throw new ThumbnailUnavailableException("Could not fetch thumbnail for book " + googleBookId, e);
+        }
+        byte[] image = downloaded.bytes();
+        MediaType contentType = downloaded.contentType();
+
+        try {
+            String hash = sha256(image);
+            Path blob = blobsDir.resolve(hash);
+            // An evicted copy still waiting for deletion is reused
+            reclaim(hash);
+            if (!Files.exists(blob)) {
+                // Write then rename, so readers never see a partial file
+                Path tmp = Files.createTempFile(blobsDir, hash, ".tmp");
+                Files.write(tmp, image);
+                Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Path ref = refsDir.resolve(googleBookId);
+            Path refTmp = Files.createTempFile(refsDir, googleBookId, ".tmp");
+            Files.writeString(refTmp, hash + "\n" + contentType, StandardCharsets.UTF_8);
+            Files.move(refTmp, ref, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            register(hash, image.length);
+            ThumbnailFile file = new ThumbnailFile(blob, image.length, hash, contentType.toString());
+            refCache.put(googleBookId, file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store thumbnail for book " + googleBookId, e);
+        }
+    }
+
+    // Streams the body instead of buffering it whole: a declared length over the limit is
+    // refused before reading, and an undeclared one stops one byte past it.
+    // Covers over the limit are never served, so they count as missing.
+    private DownloadedImage readImage(String googleBookId, ClientHttpResponse response) throws IOException {
+        if (response.getHeaders().getContentLength() > maxImageBytes) {
+            throw new ResourceNotFoundException("Thumbnail too large for book " + googleBookId);
+        }
+        byte[] image = response.getBody().readNBytes(maxImageBytes + 1);
+        if (image.length > maxImageBytes) {
+            throw new ResourceNotFoundException("Thumbnail too large for book " + googleBookId);
+        }
+        if (image.length == 0) {
+            throw new ResourceNotFoundException("Thumbnail not found for book " + googleBookId);
+        }
+        MediaType contentType = Optional.ofNullable(response.getHeaders().getContentType())
+                .orElse(MediaType.IMAGE_JPEG);
+        return new DownloadedImage(image, contentType);
+    }
+
+    private record DownloadedImage(byte[] bytes, MediaType contentType) {
+    }
+
+    // Cover URL from the shared catalog
+    private URI sourceUrl(String googleBookId) {
+        String thumbnail = catalogVolumeRepository.findById(googleBookId)
+                .map(CatalogVolumeEntity::getThumbnail)
+                .orElse(null);
+        if (thumbnail == null || thumbnail.isBlank()) {
+            throw new ResourceNotFoundException("Thumbnail not found for book " + googleBookId);
+        }
+
+        // Google still hands out http:// cover links
+        URI uri = URI.create(thumbnail.replaceFirst("^http://", "https://"));
+        if (!isGoogleImageHost(uri.getHost())) {
+            throw new ResourceNotFoundException("Thumbnail not found for book " + googleBookId);
+        }
+        return uri;
+    }
+
+    private ThumbnailFile readRef(String googleBookId) {
+        Path ref = refsDir.resolve(googleBookId);
+        if (!Files.exists(ref)) {
+            return null;
+        }
+        try {
+            String[] lines = Files.readString(ref, StandardCharsets.UTF_8).split("\n", 2);
+            Long size;
+            synchronized (this) {
+                size = blobSizes.get(lines[0]);
+            }
+            if (size == null) {
+                return null;
+            }
+            return new ThumbnailFile(blobsDir.resolve(lines[0]), size, lines[0],
+                    lines.length > 1 ? lines[1] : MediaType.IMAGE_JPEG_VALUE);
+        } catch (IOException e) {
+            log.warn("Could not read thumbnail ref for {}: {}", googleBookId, e.getMessage());
+            return null;
+        }
+    }
+
+    // Mark a blob as recently used, false if it is no longer cached
+    private synchronized boolean touch(String hash) {
+        return blobSizes.get(hash) != null;
+    }
+
+    // Called before the blob is written, so its pending deletion can't remove the new copy
+    private synchronized void reclaim(String hash) {
+        evicted.remove(hash);
+    }
+
+    private synchronized void register(String hash, long size) {
+        Long previous = blobSizes.put(hash, size);
+        if (previous == null) {
+            totalBytes += size;
+        }
+        evictIfNeeded(hash);
+        deleteEvicted();
+    }
+
+    // Drop least recently used blobs until the cache fits its budget again
+    private void evictIfNeeded(String keep) {
+        Iterator<Map.Entry<String, Long>> eldest = blobSizes.entrySet().iterator();
+        long now = System.nanoTime();
+        while (totalBytes > maxCacheBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            evicted.put(entry.getKey(), now);
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            meterRegistry.counter("thumbnails.evictions").increment();
+        }
+    }
+
+    // Delete the evicted blobs whose grace period is over
+    private void deleteEvicted() {
+        Iterator<Map.Entry<String, Long>> oldest = evicted.entrySet().iterator();
+        long now = System.nanoTime();
+        while (oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            if (now - entry.getValue() < evictionGraceNanos) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(blobsDir.resolve(entry.getKey()));
+            } catch (IOException e) {
+                // Left on disk; picked up again as a cached blob on the next start
+                log.warn("Could not delete evicted thumbnail {}: {}", entry.getKey(), e.getMessage());
+            }
+            oldest.remove();
+        }
+    }
+
+    private synchronized long cachedBytes() {
+        return totalBytes;
+    }
+
+    private FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static boolean isGoogleImageHost(String host) {
+        return host != null && (host.equals("books.google.com")
+                || host.endsWith(".google.com")
+                || host.endsWith(".googleusercontent.com"));
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
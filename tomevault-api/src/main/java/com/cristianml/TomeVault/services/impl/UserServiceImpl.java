@@ -8,14 +8,17 @@ import com.cristianml.TomeVault.exceptions.UnauthorizedException;
 import com.cristianml.TomeVault.mappers.UserMapper;
 import com.cristianml.TomeVault.repositories.UserRepository;
 import com.cristianml.TomeVault.security.dtos.AuthResponse;
+import com.cristianml.TomeVault.security.events.UserAccountChangedEvent;
+import com.cristianml.TomeVault.security.services.PasswordHashingService;
+import com.cristianml.TomeVault.services.IRefreshTokenService;
 import com.cristianml.TomeVault.services.IUserService;
 import com.cristianml.TomeVault.utilities.JwtUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,10 +33,12 @@ import static com.cristianml.TomeVault.utilities.Utilities.validatePassword;
 public class UserServiceImpl implements IUserService {
 
     private static final String DEMO_USER_EMAIL = "demo@tomevault.com";
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService; // bcrypt off the request threads
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final JwtUtils jwtUtils;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IRefreshTokenService refreshTokenService;
 
     // Get the complete profile information for the authenticated user
     @Override
@@ -53,12 +58,13 @@ public class UserServiceImpl implements IUserService {
         }
 
         // Check if email is being changed and validate it's not already taken
-        if (requestDTO.getEmail() != null && !requestDTO.getEmail().equals(user.getEmail())) {
+        // A change of case only is not a new address, so it skips the availability check
+        if (requestDTO.getEmail() != null && !requestDTO.getEmail().equalsIgnoreCase(user.getEmail())) {
             if (DEMO_USER_EMAIL.equals(requestDTO.getEmail())) {
                 throw new UnauthorizedException("Cannot use demo user email");
             }
 
-            boolean emailExists = this.userRepository.existsByEmail(requestDTO.getEmail());
+            boolean emailExists = this.userRepository.existsByEmailIgnoreCase(requestDTO.getEmail());
             if (emailExists) {
                 throw new IllegalArgumentException("Email is already in use by another user");
             }
@@ -66,7 +72,8 @@ public class UserServiceImpl implements IUserService {
 
         // Check if username is being changed and validate it's unique
         if (requestDTO.getUsername() != null && !requestDTO.getUsername().equals(user.getUsername())) {
-            boolean usernameExists = this.userRepository.existsByUsername(requestDTO.getUsername());
+            boolean usernameExists = !requestDTO.getUsername().equalsIgnoreCase(user.getUsername())
+                    && this.userRepository.existsByUsernameIgnoreCase(requestDTO.getUsername());
             if (usernameExists) {
                 throw new IllegalArgumentException("Username is already in use by another user");
             }
@@ -78,6 +85,7 @@ public class UserServiceImpl implements IUserService {
 
         // Save the updated user to database
         UserEntity updatedUser = this.userRepository.save(user);
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(updatedUser.getId()));
 
         return this.generateAuthResponseForUser(updatedUser, "Perfil actualizado correctamente.");
     }
@@ -93,7 +101,7 @@ public class UserServiceImpl implements IUserService {
         }
 
         // Verify current password matches
-        if (!passwordEncoder.matches(requestDTO.getCurrentPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(requestDTO.getCurrentPassword(), user.getPassword())) {
             throw new IllegalArgumentException("Current password is incorrect");
         }
 
@@ -103,7 +111,7 @@ public class UserServiceImpl implements IUserService {
         }
 
         // Prevent using the same password as current one
-        if (passwordEncoder.matches(requestDTO.getNewPassword(), user.getPassword())) {
+        if (passwordHashingService.matches(requestDTO.getNewPassword(), user.getPassword())) {
             throw new IllegalArgumentException("New password must be different from current password");
         }
 
@@ -111,10 +119,15 @@ public class UserServiceImpl implements IUserService {
         validatePassword(requestDTO.getNewPassword());
 
         // Encode and set the new password
-        user.setPassword(passwordEncoder.encode(requestDTO.getNewPassword()));
+        user.setPassword(passwordHashingService.encode(requestDTO.getNewPassword()));
         this.userRepository.save(user);
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(user.getId()));
 
-        return this.generateAuthResponseForUser(user, "Contraseña actualizada correctamente.");
+        // Sessions opened with the old password can't be renewed anymore
+        this.refreshTokenService.revokeAll(user.getId());
+        AuthResponse authResponse = this.generateAuthResponseForUser(user, "Contraseña actualizada correctamente.");
+        authResponse.setRefreshToken(this.refreshTokenService.issue(user));
+        return authResponse;
     }
 
     // Generate authentication response with new JWT token after profile changes
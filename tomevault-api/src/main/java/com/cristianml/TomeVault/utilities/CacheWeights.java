@@ -0,0 +1,83 @@
+package com.cristianml.TomeVault.utilities;
+
+import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
+import com.cristianml.TomeVault.dtos.google.ImageLinks;
+import com.cristianml.TomeVault.dtos.google.VolumeInfo;
+import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+
+import java.util.List;
+
+// Rough heap size estimates used as Caffeine weights, so caches can be bounded by a memory budget
+// instead of an entry count. Values are approximations, not exact object sizes.
+public final class CacheWeights {
+
+    // Approximate header + reference overhead of a small object
+    private static final int OBJECT_OVERHEAD = 16;
+
+    private CacheWeights() {}
+
+    // Estimated size of a cached Google volume, including its key
+    public static int weigh(String key, GoogleBookItem item) {
+        return OBJECT_OVERHEAD + sizeOf(key) + sizeOf(item);
+    }
+
+    // Estimated size of a cached list of Google volumes, including its key
+    public static int weighItems(String key, List<GoogleBookItem> items) {
+        int size = OBJECT_OVERHEAD + sizeOf(key) + items.size() * 4;
+        for (GoogleBookItem item : items) {
+            size += sizeOf(item);
+        }
+        return size;
+    }
+
+    // Estimated size of a cached list of mapped search results, including its key
+    public static int weighResults(String key, List<BookResponseDTO> results) {
+        int size = OBJECT_OVERHEAD + sizeOf(key) + results.size() * 4;
+        for (BookResponseDTO dto : results) {
+            size += OBJECT_OVERHEAD
+                    + sizeOf(dto.getGoogleBookId())
+                    + sizeOf(dto.getTitle())
+                    + sizeOf(dto.getAuthor())
+                    + sizeOf(dto.getDescription())
+                    + sizeOf(dto.getThumbnail())
+                    + sizeOf(dto.getTags());
+        }
+        return size;
+    }
+
+    public static int sizeOf(GoogleBookItem item) {
+        if (item == null) {
+            return 0;
+        }
+        return OBJECT_OVERHEAD + sizeOf(item.getId()) + sizeOf(item.getVolumeInfo());
+    }
+
+    private static int sizeOf(VolumeInfo info) {
+        if (info == null) {
+            return 0;
+        }
+        ImageLinks links = info.getImageLinks();
+        return OBJECT_OVERHEAD
+                + sizeOf(info.getTitle())
+                + sizeOf(info.getDescription())
+                + sizeOf(info.getAuthors())
+                + sizeOf(info.getCategories())
+                + (links == null ? 0 : OBJECT_OVERHEAD + sizeOf(links.getThumbnail()));
+    }
+
+    public static int sizeOf(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        int size = OBJECT_OVERHEAD + values.size() * 4;
+        for (String value : values) {
+            size += sizeOf(value);
+        }
+        return size;
+    }
+
+    // Strings are counted as one byte per char (compact strings) plus the String/array headers
+    public static int sizeOf(String value) {
+        return value == null ? 0 : 2 * OBJECT_OVERHEAD + value.length();
+    }
+}
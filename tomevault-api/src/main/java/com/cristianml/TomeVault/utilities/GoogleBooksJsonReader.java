@@ -0,0 +1,146 @@
+package com.cristianml.TomeVault.utilities;
+
+import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
+import com.cristianml.TomeVault.dtos.google.ImageLinks;
+import com.cristianml.TomeVault.dtos.google.VolumeInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Incremental reader for Google Books payloads built on Jackson's streaming API.
+// Reads straight into GoogleBookItem without binding a wrapper or building a tree,
+// and skips any field our DTOs don't use.
+public final class GoogleBooksJsonReader {
+
+    // Partial-response projections matching the fields of GoogleBookItem, VolumeInfo and ImageLinks
+    public static final String VOLUME_FIELDS =
+            "id,volumeInfo(title,authors,description,categories,imageLinks/thumbnail)";
+    public static final String SEARCH_FIELDS = "items(" + VOLUME_FIELDS + ")";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private GoogleBooksJsonReader() {}
+
+    // Reads the "items" array of a volumes search response
+    public static List<GoogleBookItem> readItems(InputStream body) throws IOException {
+        if (body == null) {
+            return Collections.emptyList();
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Collections.emptyList();
+            }
+            List<GoogleBookItem> items = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("items".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        items.add(readItem(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return items;
+        }
+    }
+
+    // Reads a single volume response, returns null for an empty body
+    public static GoogleBookItem readItem(InputStream body) throws IOException {
+        if (body == null) {
+            return null;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return readItem(parser);
+        }
+    }
+
+    // Expects the parser on START_OBJECT, leaves it on the matching END_OBJECT
+    private static GoogleBookItem readItem(JsonParser parser) throws IOException {
+        GoogleBookItem item = new GoogleBookItem();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field)) {
+                item.setId(readString(parser, value));
+            } else if ("volumeInfo".equals(field) && value == JsonToken.START_OBJECT) {
+                item.setVolumeInfo(readVolumeInfo(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return item;
+    }
+
+    private static VolumeInfo readVolumeInfo(JsonParser parser) throws IOException {
+        VolumeInfo info = new VolumeInfo();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "title" -> info.setTitle(readString(parser, value));
+                case "description" -> info.setDescription(readString(parser, value));
+                case "authors" -> info.setAuthors(readStringList(parser, value));
+                case "categories" -> info.setCategories(readStringList(parser, value));
+                case "imageLinks" -> info.setImageLinks(readImageLinks(parser, value));
+                default -> parser.skipChildren();
+            }
+        }
+        return info;
+    }
+
+    private static ImageLinks readImageLinks(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        ImageLinks links = new ImageLinks();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken linkValue = parser.nextToken();
+            if ("thumbnail".equals(field)) {
+                links.setThumbnail(readString(parser, linkValue));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return links;
+    }
+
+    private static List<String> readStringList(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            String text = readString(parser, element);
+            if (text != null) {
+                values.add(text);
+            }
+        }
+        return values;
+    }
+
+    private static String readString(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value.isScalarValue()) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.cristianml.TomeVault.utilities;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Helpers for building Google Books search requests and the cache keys derived from them.
+public final class GoogleBooksQueries {
+
+    // Results requested per search call
+    public static final int SEARCH_MAX_RESULTS = 20;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String OR = "OR";
+
+    private GoogleBooksQueries() {}
+
+    // Trim and collapse whitespace; this is what we send, so operators like "OR" keep their case
+    public static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(query.trim()).replaceAll(" ");
+    }
+
+    // Cache key for a normalized query and page size. Terms are case-folded so "Dune" and "dune"
+    // share one entry, but the uppercase OR operator is kept: "a OR b" and "a or b" differ to Google.
+    public static String searchKey(String normalizedQuery, int maxResults) {
+        StringBuilder key = new StringBuilder(normalizedQuery.length() + 4);
+        for (String term : normalizedQuery.split(" ")) {
+            if (!key.isEmpty()) {
+                key.append(' ');
+            }
+            key.append(OR.equals(term) ? term : term.toLowerCase(Locale.ROOT));
+        }
+        return key.append('|').append(maxResults).toString();
+    }
+}
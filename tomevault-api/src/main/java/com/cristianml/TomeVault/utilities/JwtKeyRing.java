@@ -0,0 +1,148 @@
+package com.cristianml.TomeVault.utilities;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import java.math.BigInteger;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable set of JWT keys identified by kid. One key signs new tokens; every key in the
+// ring still verifies tokens it signed, so a rotated-out key keeps working until its tokens expire.
+// Algorithm and JWTVerifier are thread-safe and built once here instead of per request.
+public final class JwtKeyRing {
+
+    private final String signingKeyId;
+    private final Algorithm signingAlgorithm;
+    private final Map<String, JWTVerifier> verifiers;
+    private final Map<String, Object> jwks;
+
+    private JwtKeyRing(String signingKeyId, Algorithm signingAlgorithm,
+                       Map<String, JWTVerifier> verifiers, List<Map<String, Object>> publicKeys) {
+        this.signingKeyId = signingKeyId;
+        this.signingAlgorithm = signingAlgorithm;
+        this.verifiers = Map.copyOf(verifiers);
+        this.jwks = Map.of("keys", List.copyOf(publicKeys));
+    }
+
+    // Ring with a single key used both to sign and to verify.
+    // publicKey is null for shared-secret (HMAC) keys, which are never published.
+    public static JwtKeyRing of(String keyId, Algorithm algorithm, PublicKey publicKey, String issuer) {
+        return new JwtKeyRing(keyId, algorithm, Map.of(keyId, verifier(algorithm, issuer)),
+                jwkList(List.of(), keyId, algorithm, publicKey));
+    }
+
+    // Returns a new ring that also verifies tokens signed with the given key
+    public JwtKeyRing withVerificationKey(String keyId, Algorithm algorithm, PublicKey publicKey, String issuer) {
+        if (keyId.equals(signingKeyId)) {
+            throw new IllegalArgumentException("Key id already used by the signing key: " + keyId);
+        }
+        Map<String, JWTVerifier> updated = new LinkedHashMap<>(verifiers);
+        updated.put(keyId, verifier(algorithm, issuer));
+        return new JwtKeyRing(signingKeyId, signingAlgorithm, updated,
+                jwkList(publishedKeys(), keyId, algorithm, publicKey));
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public Algorithm getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    // Public keys of the ring as a JWK Set (RFC 7517), ready to serialize
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    // Picks the verifier by the token's kid. Tokens issued before kids were added
+    // carry none and are checked against the signing key.
+    public DecodedJWT verify(String token) {
+        DecodedJWT decoded = JWT.decode(token);
+        String keyId = decoded.getKeyId() == null ? signingKeyId : decoded.getKeyId();
+        JWTVerifier verifier = verifiers.get(keyId);
+        if (verifier == null) {
+            throw new JWTVerificationException("Unknown signing key: " + keyId);
+        }
+        return verifier.verify(decoded);
+    }
+
+    private static JWTVerifier verifier(Algorithm algorithm, String issuer) {
+        return JWT.require(algorithm)
+                .withIssuer(issuer) // Must match the issuer set during token creation
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> publishedKeys() {
+        return (List<Map<String, Object>>) jwks.get("keys");
+    }
+
+    // Replaces any published key with the same kid, HMAC keys are left out
+    private static List<Map<String, Object>> jwkList(List<Map<String, Object>> current, String keyId,
+                                                     Algorithm algorithm, PublicKey publicKey) {
+        List<Map<String, Object>> keys = new ArrayList<>(current);
+        keys.removeIf(jwk -> keyId.equals(jwk.get("kid")));
+        if (publicKey != null) {
+            keys.add(toJwk(keyId, algorithm, publicKey));
+        }
+        return keys;
+    }
+
+    private static Map<String, Object> toJwk(String keyId, Algorithm algorithm, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getName());
+        if (publicKey instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(unsigned(rsa.getModulus())));
+            jwk.put("e", base64Url(unsigned(rsa.getPublicExponent())));
+        } else if (publicKey instanceof ECPublicKey ec) {
+            int fieldBits = ec.getParams().getCurve().getField().getFieldSize();
+            int size = (fieldBits + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", switch (fieldBits) {
+                case 256 -> "P-256";
+                case 384 -> "P-384";
+                case 521 -> "P-521";
+                default -> throw new IllegalArgumentException("Unsupported EC curve size: " + fieldBits);
+            });
+            jwk.put("x", base64Url(fixedLength(ec.getW().getAffineX(), size)));
+            jwk.put("y", base64Url(fixedLength(ec.getW().getAffineY(), size)));
+        } else {
+            throw new IllegalArgumentException("Unsupported public key type: " + publicKey.getAlgorithm());
+        }
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    // Big-endian bytes without the sign byte BigInteger may prepend
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return bytes.length > 1 && bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    // EC coordinates are left-padded to the curve size
+    private static byte[] fixedLength(BigInteger value, int size) {
+        byte[] bytes = unsigned(value);
+        byte[] padded = new byte[size];
+        System.arraycopy(bytes, 0, padded, size - bytes.length, bytes.length);
+        return padded;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
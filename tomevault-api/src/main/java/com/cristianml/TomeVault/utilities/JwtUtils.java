@@ -1,16 +1,31 @@
 package com.cristianml.TomeVault.utilities;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
@@ -25,13 +40,159 @@ public class JwtUtils {
     @Value("${security.jwt.key.private}")
     private String privateKey;
 
+    @Value("${security.jwt.key.id:k1}")
+    private String keyId;
+
+    // Keys rotated out that still verify tokens they signed, as "kid:secret" pairs separated by commas
+    @Value("${security.jwt.key.previous:}")
+    private String previousKeys;
+
     @Value("${security.jwt.user.generator}")
     private String userGenerator;
 
+    // Kept short, clients renew it through the refresh token
+    @Value("${security.jwt.access-token.ttl:30m}")
+    private Duration accessTokenTtl;
+
+    // HS256 signs with the shared secret above; RS256/ES256 (and the 384/512 variants)
+    // sign with a private key from the keystore and publish the public key as a JWKS
+    @Value("${security.jwt.algorithm:HS256}")
+    private String algorithmName;
+
+    @Value("${security.jwt.keystore.path:}")
+    private String keyStorePath;
+
+    @Value("${security.jwt.keystore.type:PKCS12}")
+    private String keyStoreType;
+
+    @Value("${security.jwt.keystore.password:}")
+    private String keyStorePassword;
+
+    // Alias of the signing key, also used as its kid
+    @Value("${security.jwt.keystore.alias:}")
+    private String keyStoreAlias;
+
+    // Aliases of rotated-out keys that still verify and stay published
+    @Value("${security.jwt.keystore.previous-aliases:}")
+    private String previousAliases;
+
+    // Signing and verification keys, built at startup and never modified
+    private JwtKeyRing keyRing;
+
+    // Build algorithms and verifiers once, they are reused by every request
+    @PostConstruct
+    public void initKeyRing() {
+        this.keyRing = algorithmName.startsWith("HS") ? secretKeyRing() : keyStoreKeyRing();
+    }
+
+    private JwtKeyRing secretKeyRing() {
+        JwtKeyRing ring = JwtKeyRing.of(keyId, hmac(privateKey), null, userGenerator);
+        for (String entry : previousKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalStateException("security.jwt.key.previous entries must be kid:secret");
+            }
+            ring = ring.withVerificationKey(entry.substring(0, separator).trim(),
+                    hmac(entry.substring(separator + 1).trim()), null, userGenerator);
+        }
+        return ring;
+    }
+
+    private JwtKeyRing keyStoreKeyRing() {
+        if (keyStorePath.isBlank() || keyStoreAlias.isBlank()) {
+            throw new IllegalStateException("security.jwt.keystore.path and alias are required for " + algorithmName);
+        }
+        KeyStore keyStore = loadKeyStore();
+        try {
+            if (!(keyStore.getKey(keyStoreAlias, keyStorePassword.toCharArray()) instanceof PrivateKey signingKey)) {
+                throw new IllegalStateException("No private key under alias " + keyStoreAlias);
+            }
+            PublicKey publicKey = publicKey(keyStore, keyStoreAlias);
+            JwtKeyRing ring = JwtKeyRing.of(keyStoreAlias, asymmetric(publicKey, signingKey), publicKey, userGenerator);
+            for (String alias : previousAliases.split(",")) {
+                if (alias.isBlank()) {
+                    continue;
+                }
+                PublicKey previous = publicKey(keyStore, alias.trim());
+                // Verification only, the private key is not needed
+                ring = ring.withVerificationKey(alias.trim(), asymmetric(previous, null), previous, userGenerator);
+            }
+            return ring;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not read JWT keys from " + keyStorePath, e);
+        }
+    }
+
+    private KeyStore loadKeyStore() {
+        try (InputStream in = Files.newInputStream(Path.of(keyStorePath))) {
+            KeyStore keyStore = KeyStore.getInstance(keyStoreType);
+            keyStore.load(in, keyStorePassword.toCharArray());
+            return keyStore;
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load JWT keystore " + keyStorePath, e);
+        }
+    }
+
+    private PublicKey publicKey(KeyStore keyStore, String alias) throws KeyStoreException {
+        Certificate certificate = keyStore.getCertificate(alias);
+        if (certificate == null) {
+            throw new IllegalStateException("No certificate under alias " + alias);
+        }
+        return certificate.getPublicKey();
+    }
+
+    // Matches the configured algorithm against the key type and size
+    private Algorithm asymmetric(PublicKey publicKey, PrivateKey privateKey) {
+        return switch (algorithmName) {
+            case "RS256" -> Algorithm.RSA256(rsa(publicKey), (RSAPrivateKey) privateKey);
+            case "RS384" -> Algorithm.RSA384(rsa(publicKey), (RSAPrivateKey) privateKey);
+            case "RS512" -> Algorithm.RSA512(rsa(publicKey), (RSAPrivateKey) privateKey);
+            case "ES256" -> Algorithm.ECDSA256(ec(publicKey), (ECPrivateKey) privateKey);
+            case "ES384" -> Algorithm.ECDSA384(ec(publicKey), (ECPrivateKey) privateKey);
+            case "ES512" -> Algorithm.ECDSA512(ec(publicKey), (ECPrivateKey) privateKey);
+            default -> throw new IllegalStateException("Unsupported security.jwt.algorithm: " + algorithmName);
+        };
+    }
+
+    private RSAPublicKey rsa(PublicKey publicKey) {
+        if (publicKey instanceof RSAPublicKey rsaKey) {
+            return rsaKey;
+        }
+        throw new IllegalStateException(algorithmName + " needs an RSA key, got " + publicKey.getAlgorithm());
+    }
+
+    private ECPublicKey ec(PublicKey publicKey) {
+        if (publicKey instanceof ECPublicKey ecKey) {
+            return ecKey;
+        }
+        throw new IllegalStateException(algorithmName + " needs an EC key, got " + publicKey.getAlgorithm());
+    }
+
+    // An empty secret would still sign, so refuse to start rather than issue forgeable tokens
+    private Algorithm hmac(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("JWT secrets can't be empty with " + algorithmName
+                    + ", set security.jwt.key.private (JWT_PRIVATE_KEY_TOME)");
+        }
+        return switch (algorithmName) {
+            case "HS256" -> Algorithm.HMAC256(secret);
+            case "HS384" -> Algorithm.HMAC384(secret);
+            case "HS512" -> Algorithm.HMAC512(secret);
+            default -> throw new IllegalStateException("Unsupported security.jwt.algorithm: " + algorithmName);
+        };
+    }
+
+    // Public verification keys as a JWK Set, empty when signing with a shared secret
+    public Map<String, Object> getJwks() {
+        return this.keyRing.getJwks();
+    }
+
     // Create a new JWT for authenticated User.
     public String createToken(Authentication authentication) {
-        // Define the algorithm for signing the token using the private key.
-        Algorithm algorithm = Algorithm.HMAC256(privateKey);
+        JwtKeyRing ring = this.keyRing;
 
         // Use authentication.getName() to correctly extract the username from the principal.
         // This works whether the principal is a String or a UserDetails object.
@@ -45,33 +206,25 @@ public class JwtUtils {
 
         // Build the JWT with various claims (payload data) and sign it.
         String jwtToken = JWT.create()
+                .withKeyId(ring.getSigningKeyId()) // Tells verifiers which key signed the token
                 .withIssuer(this.userGenerator)
                 .withSubject(username)
                 .withClaim("authorities", authorities)
                 .withIssuedAt(new Date()) // Timestamp when the token was issued
-                // Token expiration time (e.g., 30 minutes from now)
-                .withExpiresAt(new Date(System.currentTimeMillis() + 1800000)) // 30 minutes in milliseconds 1800000
+                // Token expiration time (security.jwt.access-token.ttl from now)
+                .withExpiresAt(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis()))
                 .withJWTId(UUID.randomUUID().toString())  // Unique ID for the JWT
                 // Not-before time (token is not valid before this timestamp)
                 .withNotBefore(new Date(System.currentTimeMillis()))
-                .sign(algorithm);
+                .sign(ring.getSigningAlgorithm());
         return jwtToken;
     }
 
     // Validates and decodes a given JWT.
     public DecodedJWT validateToken(String token) {
         try {
-            // Re-create the algorithm using the same private key for verification.
-            Algorithm algorithm = Algorithm.HMAC256(this.privateKey);
-
-            // Build a JWT verifier with the required algorithm and issuer.
-            JWTVerifier verifier = JWT.require(algorithm)
-                    .withIssuer(userGenerator) // Must match the issuer set during token creation
-                    .build();
-
-            // Verify and decode the token. This throws an exception if validation fails.
-            DecodedJWT decodedJWT = verifier.verify(token);
-            return decodedJWT;
+            // Verify with the key named by the token's kid. This throws an exception if validation fails.
+            return this.keyRing.verify(token);
 
         } catch (JWTVerificationException e) {
             throw new JWTVerificationException("Token invalid or unauthorized: " + e.getMessage());
@@ -0,0 +1,55 @@
+package com.cristianml.TomeVault.utilities;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free event counter over a sliding window, split into slots. Each slot packs the
+// slot's epoch and its count into a single long, so a stale slot is reset and incremented
+// with one CAS and no increments are lost when threads race on a slot change.
+public class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long slotMillis;
+    private final int slots;
+    private final AtomicLongArray cells;
+
+    public SlidingWindowCounter(Duration window, int slots) {
+        this.slots = slots;
+        this.slotMillis = Math.max(1, window.toMillis() / slots);
+        this.cells = new AtomicLongArray(slots);
+    }
+
+    public void increment() {
+        long epoch = System.currentTimeMillis() / slotMillis;
+        int index = (int) (epoch % slots);
+        while (true) {
+            long cell = cells.get(index);
+            long updated = (cell >>> COUNT_BITS) == epoch
+                    ? cell + ((cell & COUNT_MASK) < COUNT_MASK ? 1 : 0) // saturate instead of overflowing into the epoch
+                    : (epoch << COUNT_BITS) | 1;
+            if (cells.compareAndSet(index, cell, updated)) {
+                return;
+            }
+        }
+    }
+
+    // Events recorded within the last window, slots older than that are ignored
+    public long count() {
+        long currentEpoch = System.currentTimeMillis() / slotMillis;
+        long total = 0;
+        for (int i = 0; i < slots; i++) {
+            long cell = cells.get(i);
+            if (currentEpoch - (cell >>> COUNT_BITS) < slots) {
+                total += cell & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    // Window granularity: the oldest recorded events drop out within this long
+    public Duration slotDuration() {
+        return Duration.ofMillis(slotMillis);
+    }
+}
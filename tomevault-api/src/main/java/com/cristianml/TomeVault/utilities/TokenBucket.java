@@ -0,0 +1,51 @@
+package com.cristianml.TomeVault.utilities;
+
+import java.time.Duration;
+
+// Thread-safe token bucket: holds up to capacity tokens, refilled continuously at
+// capacity tokens per period.
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, Duration period) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / period.toNanos();
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    // Take one token, but only if at least reservedFraction of the capacity stays in the bucket
+    // afterwards. Lets high priority callers keep a share of the budget for themselves.
+    public synchronized boolean tryConsume(double reservedFraction) {
+        refill();
+        if (tokens - 1 < capacity * reservedFraction) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public boolean tryConsume() {
+        return tryConsume(0);
+    }
+
+    // Give back a token taken for a call that was never made
+    public synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    // Rough time until the next token is available
+    public Duration timeToNextToken() {
+        return Duration.ofNanos((long) Math.ceil(1 / tokensPerNano));
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,64 @@
+-- A catalog-backed book used to show the catalog's tags whenever it had none of its own, so
+-- they couldn't be cleared. tags_overridden says the book's own tags apply, even when empty.
+ALTER TABLE books ADD COLUMN tags_overridden BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Books with tags of their own were already shown with them
+UPDATE books b SET tags_overridden = TRUE
+WHERE EXISTS (SELECT 1 FROM book_tags t WHERE t.book_id = b.id);
+
+-- Same document as V4, indexing the tags that are shown instead of both lists
+CREATE OR REPLACE FUNCTION books_search_document(p_book_id BIGINT, p_title TEXT, p_author TEXT,
+                                                 p_description TEXT, p_volume_id VARCHAR,
+                                                 p_tags_overridden BOOLEAN)
+RETURNS tsvector LANGUAGE sql STABLE AS $$
+    SELECT setweight(to_tsvector('simple', coalesce(p_title, '')), 'A')
+        || setweight(to_tsvector('simple', coalesce(p_author, cv.author, '')), 'B')
+        || setweight(to_tsvector('simple', CASE
+               WHEN p_tags_overridden OR cv.google_book_id IS NULL
+                   THEN (SELECT string_agg(t.tag, ' ') FROM book_tags t WHERE t.book_id = p_book_id)
+               ELSE array_to_string(cv.tags, ' ')
+           END), 'C')
+        || setweight(to_tsvector('simple', coalesce(p_description, cv.description, '')), 'D')
+    FROM (SELECT 1) AS single_row
+    LEFT JOIN catalog_volumes cv ON cv.google_book_id = p_volume_id
+$$;
+
+CREATE OR REPLACE FUNCTION books_search_vector_refresh() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_vector := books_search_document(NEW.id, NEW.title, NEW.author, NEW.description,
+                                               NEW.catalog_volume_id, NEW.tags_overridden);
+    RETURN NEW;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS books_search_vector_trg ON books;
+CREATE TRIGGER books_search_vector_trg
+    BEFORE INSERT OR UPDATE OF title, author, description, catalog_volume_id, tags_overridden ON books
+    FOR EACH ROW EXECUTE FUNCTION books_search_vector_refresh();
+
+CREATE OR REPLACE FUNCTION book_tags_search_vector_refresh() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE books b
+    SET search_vector = books_search_document(b.id, b.title, b.author, b.description,
+                                              b.catalog_volume_id, b.tags_overridden)
+    WHERE b.id = COALESCE(NEW.book_id, OLD.book_id);
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION catalog_volumes_search_vector_refresh() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE books b
+    SET search_vector = books_search_document(b.id, b.title, b.author, b.description,
+                                              b.catalog_volume_id, b.tags_overridden)
+    WHERE b.catalog_volume_id = NEW.google_book_id;
+    RETURN NULL;
+END;
+$$;
+
+DROP FUNCTION books_search_document(BIGINT, TEXT, TEXT, TEXT, VARCHAR);
+
+-- Catalog-backed books with their own tags indexed the catalog's as well
+UPDATE books
+SET search_vector = books_search_document(id, title, author, description, catalog_volume_id, tags_overridden)
+WHERE catalog_volume_id IS NOT NULL;
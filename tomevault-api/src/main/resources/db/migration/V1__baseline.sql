@@ -0,0 +1,74 @@
+-- Schema as Hibernate's ddl-auto=update left it before migrations took over.
+-- Existing databases are baselined at this version and skip it (spring.flyway.baseline-on-migrate);
+-- constraint names match the ones Hibernate generated so later migrations can refer to them.
+
+CREATE TABLE users (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username                VARCHAR(255) NOT NULL,
+    password                VARCHAR(255) NOT NULL,
+    email                   VARCHAR(255),
+    firstname               VARCHAR(255),
+    lastname                VARCHAR(255),
+    address                 VARCHAR(255),
+    birth_date              DATE,
+    enabled                 BOOLEAN NOT NULL,
+    account_non_expired     BOOLEAN,
+    account_non_locked      BOOLEAN,
+    credentials_non_expired BOOLEAN,
+    deleted                 BOOLEAN DEFAULT FALSE NOT NULL,
+    deleted_at              TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT ukr43af9ap4edm43mmtq01oddj6 UNIQUE (username),
+    CONSTRAINT ukr53o2ojjw4fikudfnsuuga336 UNIQUE (password),
+    CONSTRAINT uk6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+);
+
+CREATE TABLE permissions (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    permission_name VARCHAR(255) CHECK (permission_name IN ('READ_BOOK','ADD_BOOK','EDIT_BOOK','DELETE_BOOK','MANAGE_USERS')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE roles (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    role_name VARCHAR(255) CHECK (role_name IN ('USER','ADMIN','DEVELOPER','SUPER_ADMIN')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE role_permissions (
+    role_id       BIGINT NOT NULL,
+    permission_id BIGINT NOT NULL,
+    PRIMARY KEY (role_id, permission_id),
+    CONSTRAINT fkn5fotdgk8d1xvo8nav9uv3muc FOREIGN KEY (role_id) REFERENCES roles,
+    CONSTRAINT fkegdk29eiy7mdtefy5c7eirr6e FOREIGN KEY (permission_id) REFERENCES permissions
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fkhfh9dx7w3ubf1co1vdev94g3f FOREIGN KEY (user_id) REFERENCES users,
+    CONSTRAINT fkh8ciramu9cc9q3qcqiv4ue8a6 FOREIGN KEY (role_id) REFERENCES roles
+);
+
+CREATE TABLE books (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    google_book_id    VARCHAR(255) NOT NULL,
+    title             VARCHAR(255) NOT NULL,
+    author            VARCHAR(1000),
+    description       TEXT,
+    thumbnail         VARCHAR(1000),
+    user_id           BIGINT NOT NULL,
+    added_at          DATE,
+    finished_at       DATE,
+    read_count        INTEGER,
+    is_active         BOOLEAN NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fkcykkh3hxh89ammmwch0gw5o1s FOREIGN KEY (user_id) REFERENCES users
+);
+
+CREATE TABLE book_tags (
+    book_id BIGINT NOT NULL,
+    tag     VARCHAR(255),
+    CONSTRAINT fknm8mi22mkfqgu9lbgcw1echrv FOREIGN KEY (book_id) REFERENCES books
+);
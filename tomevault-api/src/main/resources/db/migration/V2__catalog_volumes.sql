@@ -0,0 +1,16 @@
+-- Shared Google metadata, one row per volume. A book pointing at a volume keeps only the
+-- user's overrides in its own columns; books saved before this keep their full copy.
+CREATE TABLE catalog_volumes (
+    google_book_id VARCHAR(255) NOT NULL,
+    title          VARCHAR(255) NOT NULL,
+    author         VARCHAR(1000),
+    description    TEXT,
+    thumbnail      VARCHAR(1000),
+    tags           TEXT[],
+    fetched_at     TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (google_book_id)
+);
+
+ALTER TABLE books ADD COLUMN catalog_volume_id VARCHAR(255);
+ALTER TABLE books ADD CONSTRAINT fk_books_catalog_volume
+    FOREIGN KEY (catalog_volume_id) REFERENCES catalog_volumes;
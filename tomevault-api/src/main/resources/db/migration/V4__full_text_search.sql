@@ -0,0 +1,53 @@
+-- Full-text search columns, functions and triggers. Written idempotently because it used to
+-- run as schema.sql on every startup, so databases that already have it can apply it safely.
+
+-- Full-text search over a user's library: title (A), author (B), tags (C), description (D).
+-- Catalog-backed books fall back to the shared catalog_volumes metadata.
+ALTER TABLE books ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION books_search_document(p_book_id BIGINT, p_title TEXT, p_author TEXT,
+                                                 p_description TEXT, p_volume_id VARCHAR)
+RETURNS tsvector LANGUAGE sql STABLE AS $$
+    SELECT setweight(to_tsvector('simple', coalesce(p_title, '')), 'A')
+        || setweight(to_tsvector('simple', coalesce(p_author, cv.author, '')), 'B')
+        || setweight(to_tsvector('simple', concat_ws(' ',
+               array_to_string(cv.tags, ' '),
+               (SELECT string_agg(t.tag, ' ') FROM book_tags t WHERE t.book_id = p_book_id))), 'C')
+        || setweight(to_tsvector('simple', coalesce(p_description, cv.description, '')), 'D')
+    FROM (SELECT 1) AS single_row
+    LEFT JOIN catalog_volumes cv ON cv.google_book_id = p_volume_id
+$$;
+
+CREATE OR REPLACE FUNCTION books_search_vector_refresh() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_vector := books_search_document(NEW.id, NEW.title, NEW.author, NEW.description, NEW.catalog_volume_id);
+    RETURN NEW;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS books_search_vector_trg ON books;
+CREATE TRIGGER books_search_vector_trg
+    BEFORE INSERT OR UPDATE OF title, author, description, catalog_volume_id ON books
+    FOR EACH ROW EXECUTE FUNCTION books_search_vector_refresh();
+
+-- Tags live in their own table and are written after the book row
+CREATE OR REPLACE FUNCTION book_tags_search_vector_refresh() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE books b
+    SET search_vector = books_search_document(b.id, b.title, b.author, b.description, b.catalog_volume_id)
+    WHERE b.id = COALESCE(NEW.book_id, OLD.book_id);
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS book_tags_search_vector_trg ON book_tags;
+CREATE TRIGGER book_tags_search_vector_trg
+    AFTER INSERT OR UPDATE OR DELETE ON book_tags
+    FOR EACH ROW EXECUTE FUNCTION book_tags_search_vector_refresh();
+
+-- Backfill rows written before the trigger existed
+UPDATE books
+SET search_vector = books_search_document(id, title, author, description, catalog_volume_id)
+WHERE search_vector IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_books_search_vector ON books USING GIN (search_vector);
@@ -0,0 +1,20 @@
+-- Indexes for the hot BookRepository / UserRepository queries.
+-- IF NOT EXISTS because the login indexes were created by schema.sql before migrations.
+
+-- Library listing and book count (findAllByUserAndIsActiveTrue, countByUserAndIsActiveTrue).
+-- Partial on active rows, ordered by added_at then id so a page is a range scan in either direction.
+CREATE INDEX IF NOT EXISTS idx_books_user_active_added ON books (user_id, added_at, id) WHERE is_active;
+
+-- Per-volume checks (exists/findByGoogleBookIdAndUser*, findOwnershipByUserAndGoogleBookIdIn).
+-- is_active is carried along so the existence checks are answered from the index alone.
+CREATE INDEX IF NOT EXISTS idx_books_user_google_book ON books (user_id, google_book_id) INCLUDE (is_active);
+
+-- book_tags has no key at all; user_roles and role_permissions are already served by their
+-- primary keys, which lead with user_id and role_id
+CREATE INDEX IF NOT EXISTS idx_book_tags_book ON book_tags (book_id);
+
+-- Case-insensitive login lookups (UserRepository.findAllByLogin). Unique, so two accounts
+-- can't differ only by case and a login never matches more than one per column.
+-- Fails if existing accounts already collide; rename one of them before migrating.
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_lower_username ON users (lower(username));
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_lower_email ON users (lower(email));
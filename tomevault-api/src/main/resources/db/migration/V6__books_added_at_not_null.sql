@@ -0,0 +1,4 @@
+-- Keyset pagination seeks on (added_at, id), which needs every book to have a date.
+-- Books saved without one are treated as added on the day this runs.
+UPDATE books SET added_at = CURRENT_DATE WHERE added_at IS NULL;
+ALTER TABLE books ALTER COLUMN added_at SET NOT NULL;
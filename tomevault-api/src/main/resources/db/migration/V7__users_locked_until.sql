@@ -0,0 +1,7 @@
+-- Lockouts after repeated failed logins expire on their own through locked_until;
+-- account_non_locked goes back to being set only by admins.
+ALTER TABLE users ADD COLUMN locked_until TIMESTAMP(6);
+
+-- Active accounts can only have been locked by the failed-login throttle, release them
+UPDATE users SET account_non_locked = TRUE
+WHERE account_non_locked = FALSE AND enabled = TRUE AND deleted = FALSE;
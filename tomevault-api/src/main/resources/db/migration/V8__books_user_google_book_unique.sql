@@ -0,0 +1,21 @@
+-- A user holds each Google volume at most once. Ownership used to be checked before the
+-- insert only, so concurrent imports of the same volume could both add it; batch imports
+-- now rely on this index through INSERT ... ON CONFLICT (BookBatchRepository.insertAll).
+
+-- Duplicates left by that race: keep the active copy, else the oldest one
+DELETE FROM book_tags WHERE book_id IN (
+    SELECT id FROM (
+        SELECT id, row_number() OVER (PARTITION BY user_id, google_book_id ORDER BY is_active DESC, id) AS copy
+        FROM books
+    ) ranked WHERE copy > 1
+);
+DELETE FROM books WHERE id IN (
+    SELECT id FROM (
+        SELECT id, row_number() OVER (PARTITION BY user_id, google_book_id ORDER BY is_active DESC, id) AS copy
+        FROM books
+    ) ranked WHERE copy > 1
+);
+
+-- Same columns as the V5 index it replaces, so the per-volume checks keep their index-only scans
+DROP INDEX IF EXISTS idx_books_user_google_book;
+CREATE UNIQUE INDEX idx_books_user_google_book ON books (user_id, google_book_id) INCLUDE (is_active);
@@ -0,0 +1,30 @@
+-- Catalog-backed books index the catalog's author, description and tags (V4), so a catalog
+-- refresh (CatalogServiceImpl, app.books.catalog.refresh-after) must re-index the books that
+-- point at the volume. Books keep their own title, which is why a title change alone doesn't.
+
+-- Finds the books of a volume for the trigger below instead of scanning every library
+CREATE INDEX IF NOT EXISTS idx_books_catalog_volume ON books (catalog_volume_id);
+
+CREATE OR REPLACE FUNCTION catalog_volumes_search_vector_refresh() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE books b
+    SET search_vector = books_search_document(b.id, b.title, b.author, b.description, b.catalog_volume_id)
+    WHERE b.catalog_volume_id = NEW.google_book_id;
+    RETURN NULL;
+END;
+$$;
+
+-- Refreshes rewrite every column, only real changes to the indexed ones re-index
+DROP TRIGGER IF EXISTS catalog_volumes_search_vector_trg ON catalog_volumes;
+CREATE TRIGGER catalog_volumes_search_vector_trg
+    AFTER UPDATE OF title, author, description, tags ON catalog_volumes
+    FOR EACH ROW
+    WHEN (OLD.author IS DISTINCT FROM NEW.author
+          OR OLD.description IS DISTINCT FROM NEW.description
+          OR OLD.tags IS DISTINCT FROM NEW.tags)
+    EXECUTE FUNCTION catalog_volumes_search_vector_refresh();
+
+-- Catalog-backed books whose volume changed before the trigger existed
+UPDATE books
+SET search_vector = books_search_document(id, title, author, description, catalog_volume_id)
+WHERE catalog_volume_id IS NOT NULL;
@@ -0,0 +1,26 @@
+package com.cristianml.TomeVault;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// Base for tests against a migrated Postgres container. All subclasses share one context
+// (and one container); they are skipped where Docker isn't available.
+@SpringBootTest(properties = {
+		"app.google-books.key=test",
+		"security.jwt.key.private=integration-test-secret",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.cristianml.TomeVault.RecordingStatementInspector"
+})
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+	// The demo seed can't run on an empty database (both demo users share one password hash
+	// and users.password is UNIQUE), so tests create the rows they need themselves
+	@MockitoBean(name = "init")
+	CommandLineRunner init;
+
+}
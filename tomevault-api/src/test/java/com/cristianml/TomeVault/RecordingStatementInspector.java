@@ -0,0 +1,28 @@
+package com.cristianml.TomeVault;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps the SQL Hibernate sends on the current thread, so tests can check the statements
+// a repository call really produces instead of a hand-written copy
+public class RecordingStatementInspector implements StatementInspector {
+
+	private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.get().add(sql);
+		return sql;
+	}
+
+	public static List<String> record(Runnable action) {
+		STATEMENTS.get().clear();
+		action.run();
+		List<String> statements = List.copyOf(STATEMENTS.get());
+		STATEMENTS.get().clear();
+		return statements;
+	}
+
+}
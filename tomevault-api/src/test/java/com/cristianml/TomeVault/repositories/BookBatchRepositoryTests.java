@@ -0,0 +1,115 @@
+package com.cristianml.TomeVault.repositories;
+
+import com.cristianml.TomeVault.PostgresIntegrationTest;
+import com.cristianml.TomeVault.entities.BookEntity;
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
+import com.cristianml.TomeVault.entities.UserEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookBatchRepositoryTests extends PostgresIntegrationTest {
+
+	@Autowired
+	private BookBatchRepository bookBatchRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private UserEntity user;
+	private String volumeId;
+
+	@BeforeEach
+	void setUp() {
+		String name = "Importer" + UUID.randomUUID().toString().substring(0, 8);
+		user = new UserEntity();
+		user.setUsername(name);
+		user.setPassword(name);
+		user.setEnabled(true);
+		user = userRepository.save(user);
+
+		volumeId = "vol-" + name;
+		jdbcTemplate.update("INSERT INTO catalog_volumes (google_book_id, title, fetched_at) VALUES (?, 'Dune', now())", volumeId);
+	}
+
+	// The user got the volume after the ownership check: skipped, not failed, not duplicated
+	@Test
+	void volumesTheUserAlreadyHoldsAreSkipped() {
+		jdbcTemplate.update("INSERT INTO books (google_book_id, title, user_id, added_at, read_count, is_active) " +
+				"VALUES (?, 'Dune', ?, DATE '2024-01-01', 0, false)", volumeId, user.getId());
+		BookEntity held = book(volumeId, volumeId);
+		BookEntity fresh = book("other-" + volumeId, null);
+
+		Map<String, RuntimeException> failures = bookBatchRepository.insertAll(List.of(held, fresh));
+
+		assertThat(failures).isEmpty();
+		assertThat(held.getId()).isNull();
+		assertThat(fresh.getId()).isNotNull();
+		assertThat(booksOfUser()).isEqualTo(2);
+	}
+
+	@Test
+	void aBadRowOnlyFailsItsOwnImport() {
+		BookEntity good = book(volumeId, volumeId);
+		BookEntity bad = book("missing-" + volumeId, "missing-" + volumeId); // no such catalog volume
+
+		Map<String, RuntimeException> failures = bookBatchRepository.insertAll(List.of(good, bad));
+
+		assertThat(failures).containsOnlyKeys(bad.getGoogleBookId());
+		assertThat(good.getId()).isNotNull();
+		assertThat(bad.getId()).isNull();
+		assertThat(booksOfUser()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentImportsOfTheSameVolumesAddEachOnce() {
+		CountDownLatch start = new CountDownLatch(1);
+		List<CompletableFuture<List<BookEntity>>> imports = IntStream.range(0, 4)
+				.mapToObj(attempt -> CompletableFuture.supplyAsync(() -> {
+					List<BookEntity> books = IntStream.range(0, 20).mapToObj(i -> book("g" + i, null)).toList();
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					assertThat(bookBatchRepository.insertAll(books)).isEmpty();
+					return books;
+				}))
+				.toList();
+		start.countDown();
+
+		long inserted = imports.stream().map(CompletableFuture::join).flatMap(List::stream)
+				.filter(book -> book.getId() != null).count();
+		assertThat(inserted).isEqualTo(20);
+		assertThat(booksOfUser()).isEqualTo(20);
+	}
+
+	private BookEntity book(String googleBookId, String catalogVolumeId) {
+		return BookEntity.builder()
+				.googleBookId(googleBookId)
+				.title("Dune")
+				.volume(catalogVolumeId == null ? null : CatalogVolumeEntity.builder().googleBookId(catalogVolumeId).build())
+				.user(user)
+				.addedAt(LocalDate.of(2024, 1, 1))
+				.readCount(0)
+				.isActive(true)
+				.build();
+	}
+
+	private Integer booksOfUser() {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM books WHERE user_id = ?", Integer.class, user.getId());
+	}
+
+}
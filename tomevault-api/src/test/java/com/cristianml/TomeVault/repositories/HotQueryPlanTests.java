@@ -0,0 +1,180 @@
+package com.cristianml.TomeVault.repositories;
+
+import com.cristianml.TomeVault.PostgresIntegrationTest;
+import com.cristianml.TomeVault.RecordingStatementInspector;
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Guards the indexes from the migrations: each hot query, as Hibernate actually generates it,
+// must reach its table through an index condition. The tables here are nearly empty, so the
+// planner's own choice means nothing; with seq scans disabled the question becomes "can an
+// index drive this query?", and a full index scan without a condition counts as a failure.
+@Transactional
+class HotQueryPlanTests extends PostgresIntegrationTest {
+
+	private static final Pattern PLACEHOLDER = Pattern.compile("\\?");
+
+	@Autowired
+	private BookRepository bookRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private UserEntity user;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+		jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+		// Only the id is bound, the row doesn't have to exist
+		user = userRepository.getReferenceById(1L);
+	}
+
+	@Test
+	void libraryPageAndCountUseTheActiveBooksIndex() {
+		List<String> statements = RecordingStatementInspector.record(() -> bookRepository.findActiveCardsByUser(user,
+				PageRequest.of(3, 20, Sort.by(Sort.Direction.DESC, "addedAt"))));
+
+		assertThat(statements).hasSize(2);
+		statements.forEach(sql -> assertIndexDriven(sql, "books"));
+	}
+
+	@Test
+	void keysetPagesUseTheActiveBooksIndex() {
+		assertIndexDriven(single(() -> bookRepository.findActiveCardsByUserNewestFirst(user, PageRequest.of(0, 20))), "books");
+		assertIndexDriven(single(() -> bookRepository.findActiveCardsByUserNewestFirstAfter(user,
+				LocalDate.of(2024, 1, 1), 100L, PageRequest.of(0, 20))), "books");
+	}
+
+	@Test
+	void pageTagsUseTheBookTagsIndex() {
+		assertIndexDriven(single(() -> bookRepository.findTagsByBookIdIn(List.of(1L, 2L, 3L))), "book_tags");
+	}
+
+	@Test
+	void activeCountUsesTheActiveBooksIndex() {
+		assertIndexDriven(single(() -> bookRepository.countByUserAndIsActiveTrue(user)), "books");
+	}
+
+	@Test
+	void perVolumeChecksUseTheUserVolumeIndex() {
+		assertIndexDriven(single(() -> bookRepository.existsByGoogleBookIdAndUserAndIsActiveTrue("vol", user)), "books");
+		assertIndexDriven(single(() -> bookRepository.existsByGoogleBookIdAndUserAndIsActiveFalse("vol", user)), "books");
+		assertIndexDriven(single(() -> bookRepository.findByGoogleBookIdAndUserAndIsActiveFalse("vol", user)), "books");
+		assertIndexDriven(single(() -> bookRepository.existsByGoogleBookIdAndUser("vol", user)), "books");
+		assertIndexDriven(single(() -> bookRepository.findOwnershipByUserAndGoogleBookIdIn(user, List.of("a", "b"))), "books");
+	}
+
+	@Test
+	void librarySearchUsesAnIndex() {
+		List<String> statements = RecordingStatementInspector.record(() ->
+				bookRepository.searchActiveByUser(1L, "dune", PageRequest.of(3, 20)));
+
+		assertThat(statements).hasSize(2);
+		statements.forEach(sql -> assertIndexDriven(sql, "books"));
+	}
+
+	// The statement catalog_volumes_search_vector_refresh (V9) runs when a volume is refreshed
+	@Test
+	void catalogRefreshReindexUsesTheCatalogVolumeIndex() {
+		assertIndexDriven("UPDATE books b SET search_vector = books_search_document(b.id, b.title, b.author, " +
+				"b.description, b.catalog_volume_id, b.tags_overridden) WHERE b.catalog_volume_id = ?", "books");
+	}
+
+	@Test
+	void loginUsesTheLowerCaseIndexes() {
+		String sql = single(() -> userRepository.findAllByLogin("Someone"));
+
+		assertIndexDriven(sql, "users");
+		assertIndexDriven(sql, "user_roles");
+		assertIndexDriven(sql, "role_permissions");
+	}
+
+	@Test
+	void availabilityChecksUseTheLowerCaseIndexes() {
+		assertIndexDriven(single(() -> userRepository.existsByUsernameIgnoreCase("Someone")), "users");
+		assertIndexDriven(single(() -> userRepository.existsByEmailIgnoreCase("someone@example.com")), "users");
+	}
+
+	@Test
+	void refreshTokenLookupsUseTheirIndexes() {
+		assertIndexDriven(single(() -> refreshTokenRepository.findByTokenHash("hash")), "refresh_tokens");
+		assertIndexDriven(single(() -> refreshTokenRepository.revokeFamily("family")), "refresh_tokens");
+		assertIndexDriven(single(() -> refreshTokenRepository.deleteExpiredByUserId(1L, LocalDateTime.now())), "refresh_tokens");
+	}
+
+	private static String single(Runnable query) {
+		List<String> statements = RecordingStatementInspector.record(query);
+		assertThat(statements).hasSize(1);
+		return statements.get(0);
+	}
+
+	private void assertIndexDriven(String sql, String table) {
+		List<JsonNode> scans = new ArrayList<>();
+		collectScans(explain(sql), table, scans);
+
+		assertThat(scans).as("scans of %s in%n%s", table, sql).isNotEmpty();
+		for (JsonNode scan : scans) {
+			String nodeType = scan.path("Node Type").asText();
+			boolean hasCondition = scan.has("Index Cond") || scan.has("Recheck Cond");
+			assertThat(nodeType).as("scan of %s in%n%s", table, sql).isNotEqualTo("Seq Scan");
+			assertThat(hasCondition).as("%s on %s has no index condition in%n%s", nodeType, table, sql).isTrue();
+		}
+	}
+
+	// Hibernate's ? placeholders become $n of a prepared statement whose generic plan, the one
+	// that doesn't depend on the values, is explained
+	private JsonNode explain(String sql) {
+		Matcher matcher = PLACEHOLDER.matcher(sql);
+		StringBuilder numbered = new StringBuilder();
+		int index = 0;
+		while (matcher.find()) {
+			matcher.appendReplacement(numbered, "\\$" + ++index);
+		}
+		matcher.appendTail(numbered);
+
+		jdbcTemplate.execute("PREPARE hot_query AS " + numbered);
+		String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) EXECUTE hot_query"
+				+ (index == 0 ? "" : "(" + String.join(", ", Collections.nCopies(index, "NULL")) + ")"), String.class);
+		jdbcTemplate.execute("DEALLOCATE hot_query");
+		try {
+			return objectMapper.readTree(json).get(0).get("Plan");
+		} catch (Exception e) {
+			throw new IllegalStateException("Unreadable plan: " + json, e);
+		}
+	}
+
+	private static void collectScans(JsonNode node, String table, List<JsonNode> scans) {
+		// ModifyTable nodes name the table too, only the scans below them read it
+		if (table.equals(node.path("Relation Name").asText()) && node.path("Node Type").asText().endsWith("Scan")) {
+			scans.add(node);
+		}
+		for (JsonNode child : node.path("Plans")) {
+			collectScans(child, table, scans);
+		}
+	}
+
+}
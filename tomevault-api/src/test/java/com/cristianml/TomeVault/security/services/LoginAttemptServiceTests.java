@@ -0,0 +1,95 @@
+package com.cristianml.TomeVault.security.services;
+
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.exceptions.AccountLockedException;
+import com.cristianml.TomeVault.exceptions.LoginThrottledException;
+import com.cristianml.TomeVault.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LoginAttemptServiceTests {
+
+	private static final String USERNAME = "reader";
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(null, userRepository, null, null);
+	private LoginAttemptService loginAttemptService;
+	private UserEntity user;
+
+	@BeforeEach
+	void setUp() {
+		// Three failures lock the account for an hour, the per-username throttle stays out of the way
+		loginAttemptService = new LoginAttemptService(userRepository, new SimpleMeterRegistry(),
+				Duration.ofMinutes(15), 100, 100, 3, Duration.ofHours(24), Duration.ofHours(1), 1000);
+
+		user = new UserEntity();
+		user.setId(1L);
+		user.setUsername(USERNAME);
+		user.setEmail("reader@example.com");
+		user.setEnabled(true);
+		user.setAccountNonLocked(true);
+		user.setRoleList(new HashSet<>());
+		when(userRepository.findByUsernameOrEmail(any())).thenReturn(Optional.of(user));
+	}
+
+	@Test
+	void repeatedFailuresLockTheAccountForTheLockDurationOnly() {
+		for (int i = 0; i < 3; i++) {
+			loginAttemptService.recordFailure(USERNAME);
+		}
+
+		verify(userRepository).save(user);
+		assertThat(user.isAccountNonLocked()).isTrue();
+		assertThat(user.getLockedUntil()).isBetween(LocalDateTime.now().plusMinutes(59), LocalDateTime.now().plusHours(1));
+		assertThatThrownBy(() -> userDetailsService.loadUserByUsername(USERNAME)).isInstanceOf(AccountLockedException.class);
+
+		// Once the lock is over the account logs in again without an admin
+		user.setLockedUntil(LocalDateTime.now().minusSeconds(1));
+		assertThat(userDetailsService.loadUserByUsername(USERNAME).getUsername()).isEqualTo(USERNAME);
+	}
+
+	@Test
+	void failuresBelowTheThresholdDontLock() {
+		loginAttemptService.recordFailure(USERNAME);
+		loginAttemptService.recordFailure(USERNAME);
+		loginAttemptService.recordSuccess(USERNAME);
+		loginAttemptService.recordFailure(USERNAME);
+
+		verify(userRepository, never()).save(any());
+		assertThat(user.getLockedUntil()).isNull();
+	}
+
+	@Test
+	void theDemoAccountIsNeverLocked() {
+		user.setEmail("demo@tomevault.com");
+		for (int i = 0; i < 3; i++) {
+			loginAttemptService.recordFailure(USERNAME);
+		}
+
+		verify(userRepository, never()).save(any());
+		assertThat(user.getLockedUntil()).isNull();
+	}
+
+	@Test
+	void usernamesOverTheShortWindowLimitAreThrottled() {
+		LoginAttemptService strict = new LoginAttemptService(userRepository, new SimpleMeterRegistry(),
+				Duration.ofMinutes(15), 2, 100, 0, Duration.ofHours(24), Duration.ofHours(1), 1000);
+		strict.recordFailure(USERNAME);
+		strict.recordFailure(USERNAME.toUpperCase());
+
+		assertThatThrownBy(() -> strict.checkAllowed(" Reader ")).isInstanceOf(LoginThrottledException.class);
+		verify(userRepository, never()).save(any());
+	}
+
+}
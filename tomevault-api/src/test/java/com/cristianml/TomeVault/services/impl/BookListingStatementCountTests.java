@@ -0,0 +1,115 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.PostgresIntegrationTest;
+import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+import com.cristianml.TomeVault.dtos.responses.BookSliceResponseDTO;
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.services.IBookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Locks in the fix for the tags N+1 on the library listing: the number of statements per page
+// doesn't grow with the page size.
+class BookListingStatementCountTests extends PostgresIntegrationTest {
+
+	private static final int BOOKS = 60;
+
+	@Autowired
+	private IBookService bookService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private UserEntity user;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		String name = "Reader" + UUID.randomUUID().toString().substring(0, 8);
+		user = new UserEntity();
+		user.setUsername(name);
+		user.setPassword(name);
+		user.setEnabled(true);
+		user = userRepository.save(user);
+
+		// Every book has its own tags and every other one is backed by a catalog volume
+		String volumeId = "vol-" + name;
+		jdbcTemplate.update("INSERT INTO catalog_volumes (google_book_id, title, author, tags, fetched_at) " +
+				"VALUES (?, 'Catalog title', 'Catalog author', ARRAY['fiction'], now())", volumeId);
+		for (int i = 0; i < BOOKS; i++) {
+			Long bookId = jdbcTemplate.queryForObject("INSERT INTO books (google_book_id, catalog_volume_id, title, " +
+							"user_id, added_at, read_count, is_active, tags_overridden) " +
+							"VALUES (?, ?, ?, ?, DATE '2024-01-01' + ?, 0, true, true) RETURNING id",
+					Long.class, "g" + i, i % 2 == 0 ? volumeId : null, "Book " + i, user.getId(), i);
+			jdbcTemplate.update("INSERT INTO book_tags (book_id, tag) VALUES (?, 'tag-a'), (?, 'tag-b')", bookId, bookId);
+		}
+	}
+
+	// Cards, then the tags of the whole page
+	@ParameterizedTest
+	@ValueSource(ints = {5, 20, 50})
+	void cursorPagesRunTwoStatementsWhateverTheirSize(int size) {
+		statistics.clear();
+		BookSliceResponseDTO first = bookService.getBooksByUserAfter(user, null, size);
+
+		assertThat(first.getContent()).hasSize(size).allSatisfy(book -> assertThat(book.getTags()).hasSize(2));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+		statistics.clear();
+		BookSliceResponseDTO next = bookService.getBooksByUserAfter(user, first.getNextCursor(), size);
+
+		assertThat(next.getContent()).isNotEmpty();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	// Same two plus the count the Page needs for its totals
+	@ParameterizedTest
+	@ValueSource(ints = {5, 20, 50})
+	void offsetPagesRunThreeStatementsWhateverTheirSize(int size) {
+		statistics.clear();
+		Page<BookResponseDTO> page = bookService.getBooksByUser(user,
+				PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "addedAt")));
+
+		assertThat(page.getContent()).hasSize(size).allSatisfy(book -> assertThat(book.getTags()).hasSize(2));
+		assertThat(page.getTotalElements()).isEqualTo(BOOKS);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+	// Library search goes through the same card rows: ranked cards, page tags, count
+	@ParameterizedTest
+	@ValueSource(ints = {5, 20, 50})
+	void searchPagesRunThreeStatementsWhateverTheirSize(int size) {
+		statistics.clear();
+		Page<BookResponseDTO> page = bookService.searchBooksByUser(user, "book", PageRequest.of(0, size));
+
+		assertThat(page.getContent()).hasSize(size).allSatisfy(book -> {
+			assertThat(book.getTags()).hasSize(2);
+			assertThat(book.getAddedAt()).isNotNull();
+		});
+		assertThat(page.getContent()).filteredOn(book -> book.getAuthor() != null)
+				.isNotEmpty()
+				.allSatisfy(book -> assertThat(book.getAuthor()).isEqualTo("Catalog author"));
+		assertThat(page.getTotalElements()).isEqualTo(BOOKS);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+}
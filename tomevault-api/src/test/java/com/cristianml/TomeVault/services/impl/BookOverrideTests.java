@@ -0,0 +1,128 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.PostgresIntegrationTest;
+import com.cristianml.TomeVault.dtos.requests.BookRequestDTO;
+import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.services.IBookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A catalog-backed book shows the catalog's metadata unless the user overrode it,
+// and clearing a value is an override too
+class BookOverrideTests extends PostgresIntegrationTest {
+
+	@Autowired
+	private IBookService bookService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private UserEntity user;
+	private String volumeId;
+	private Long bookId;
+
+	@BeforeEach
+	void setUp() {
+		String name = "Editor" + UUID.randomUUID().toString().substring(0, 8);
+		user = new UserEntity();
+		user.setUsername(name);
+		user.setPassword(name);
+		user.setEnabled(true);
+		user = userRepository.save(user);
+
+		volumeId = "vol-" + name;
+		jdbcTemplate.update("INSERT INTO catalog_volumes (google_book_id, title, author, description, thumbnail, tags, " +
+				"fetched_at) VALUES (?, 'Dune', 'Herbert', 'Desert planet', 'https://example.com/dune.jpg', " +
+				"ARRAY['fiction'], now())", volumeId);
+		bookId = jdbcTemplate.queryForObject("INSERT INTO books (google_book_id, catalog_volume_id, title, user_id, " +
+				"added_at, read_count, is_active) VALUES (?, ?, 'Dune', ?, DATE '2024-01-01', 0, true) RETURNING id",
+				Long.class, volumeId, volumeId, user.getId());
+	}
+
+	@Test
+	void clearedValuesStayCleared() {
+		BookResponseDTO updated = bookService.updateBook(bookId, request(null, "", null, List.of()), user);
+
+		assertThat(updated.getAuthor()).isNull();
+		assertThat(updated.getDescription()).isNull();
+		assertThat(updated.getThumbnail()).isNull();
+		assertThat(updated.getTags()).isEmpty();
+		for (BookResponseDTO book : List.of(detail(), card())) {
+			assertThat(book.getAuthor()).isNull();
+			assertThat(book.getThumbnail()).isNull();
+			assertThat(book.getTags()).isNullOrEmpty();
+		}
+		assertThat(detail().getDescription()).isNull();
+		assertThat(search("herbert")).isEmpty();
+		assertThat(search("fiction")).isEmpty();
+	}
+
+	@Test
+	void catalogValuesSentBackKeepFollowingTheCatalog() {
+		bookService.updateBook(bookId, request("Herbert", "Desert planet", "https://example.com/dune.jpg",
+				List.of("fiction")), user);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT author IS NULL AND description IS NULL AND thumbnail IS NULL " +
+				"AND NOT tags_overridden FROM books WHERE id = ?", Boolean.class, bookId)).isTrue();
+
+		jdbcTemplate.update("UPDATE catalog_volumes SET author = 'Frank Herbert', tags = ARRAY['classics'] " +
+				"WHERE google_book_id = ?", volumeId);
+		assertThat(detail().getAuthor()).isEqualTo("Frank Herbert");
+		assertThat(card().getTags()).containsExactly("classics");
+	}
+
+	@Test
+	void ownValuesReplaceTheCatalogs() {
+		bookService.updateBook(bookId, request("F. Herbert", "Spice", null, List.of("sci-fi", "desert")), user);
+
+		assertThat(detail().getAuthor()).isEqualTo("F. Herbert");
+		assertThat(detail().getDescription()).isEqualTo("Spice");
+		assertThat(card().getTags()).containsExactlyInAnyOrder("sci-fi", "desert");
+		assertThat(search("sci-fi")).hasSize(1);
+		assertThat(search("fiction")).isEmpty();
+
+		// Sending no tags leaves them as they are
+		bookService.updateBook(bookId, request("F. Herbert", "Spice", null, null), user);
+		assertThat(detail().getTags()).containsExactlyInAnyOrder("sci-fi", "desert");
+	}
+
+	private BookRequestDTO request(String author, String description, String thumbnail, List<String> tags) {
+		BookRequestDTO request = new BookRequestDTO();
+		request.setTitle("Dune");
+		request.setAuthor(author);
+		request.setDescription(description);
+		request.setThumbnail(thumbnail);
+		request.setTags(tags);
+		return request;
+	}
+
+	// The lazy catalog volume is read in the session a web request keeps open
+	private BookResponseDTO detail() {
+		return new TransactionTemplate(transactionManager).execute(status ->
+				bookService.getBookByGoogleIdForUser(volumeId, user));
+	}
+
+	private BookResponseDTO card() {
+		return bookService.getBooksByUser(user, PageRequest.of(0, 10)).getContent().get(0);
+	}
+
+	private List<BookResponseDTO> search(String query) {
+		return bookService.searchBooksByUser(user, query, PageRequest.of(0, 10)).getContent();
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.PostgresIntegrationTest;
+import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
+import com.cristianml.TomeVault.dtos.google.VolumeInfo;
+import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.mappers.BookMapper;
+import com.cristianml.TomeVault.repositories.CatalogVolumeRepository;
+import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.services.IBookService;
+import com.cristianml.TomeVault.services.IGoogleBooksIntegrationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Catalog-backed books are searched by the catalog's metadata, which a refresh rewrites
+class CatalogRefreshSearchTests extends PostgresIntegrationTest {
+
+	@Autowired
+	private IBookService bookService;
+	@Autowired
+	private CatalogVolumeRepository catalogVolumeRepository;
+	@Autowired
+	private BookMapper bookMapper;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final IGoogleBooksIntegrationService googleBooks = mock(IGoogleBooksIntegrationService.class);
+	private CatalogServiceImpl catalogService;
+	private UserEntity user;
+	private String volumeId;
+
+	@BeforeEach
+	void setUp() {
+		// Every cataloged volume is due for a refresh
+		catalogService = new CatalogServiceImpl(catalogVolumeRepository, googleBooks, bookMapper,
+				transactionManager, 2, Duration.ZERO);
+
+		String name = "Searcher" + UUID.randomUUID().toString().substring(0, 8);
+		user = new UserEntity();
+		user.setUsername(name);
+		user.setPassword(name);
+		user.setEnabled(true);
+		user = userRepository.save(user);
+
+		volumeId = "vol-" + name;
+		jdbcTemplate.update("INSERT INTO catalog_volumes (google_book_id, title, author, description, tags, fetched_at) " +
+				"VALUES (?, 'Dune', 'Herbert', 'Desert planet', ARRAY['fiction'], now())", volumeId);
+		jdbcTemplate.update("INSERT INTO books (google_book_id, catalog_volume_id, title, user_id, added_at, read_count, " +
+				"is_active) VALUES (?, ?, 'Dune', ?, DATE '2024-01-01', 0, true)", volumeId, volumeId, user.getId());
+	}
+
+	@Test
+	void refreshedCatalogMetadataIsSearchable() {
+		VolumeInfo info = new VolumeInfo();
+		info.setTitle("Dune");
+		info.setAuthors(List.of("Frank Herbert"));
+		info.setDescription("Spice and sandworms");
+		info.setCategories(List.of("classics"));
+		GoogleBookItem item = new GoogleBookItem();
+		item.setId(volumeId);
+		item.setVolumeInfo(info);
+		when(googleBooks.getBookByIdForImport(volumeId)).thenReturn(item);
+
+		assertThat(search("desert")).hasSize(1);
+
+		catalogService.getOrFetchVolume(volumeId);
+
+		assertThat(search("sandworms")).extracting(BookResponseDTO::getAuthor).containsExactly("Frank Herbert");
+		assertThat(search("frank")).hasSize(1);
+		assertThat(search("classics")).hasSize(1);
+		assertThat(search("desert")).isEmpty();
+	}
+
+	private List<BookResponseDTO> search(String query) {
+		return bookService.searchBooksByUser(user, query, PageRequest.of(0, 10)).getContent();
+	}
+
+}
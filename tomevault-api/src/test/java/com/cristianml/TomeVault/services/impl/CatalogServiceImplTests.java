@@ -0,0 +1,102 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
+import com.cristianml.TomeVault.exceptions.GoogleBooksUnavailableException;
+import com.cristianml.TomeVault.mappers.BookMapper;
+import com.cristianml.TomeVault.repositories.CatalogVolumeRepository;
+import com.cristianml.TomeVault.services.ICatalogService.VolumeLookup;
+import com.cristianml.TomeVault.services.IGoogleBooksIntegrationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CatalogServiceImplTests {
+
+	private static final Duration REFRESH_AFTER = Duration.ofDays(30);
+
+	private final CatalogVolumeRepository catalogVolumeRepository = mock(CatalogVolumeRepository.class);
+	private final IGoogleBooksIntegrationService googleBooks = mock(IGoogleBooksIntegrationService.class);
+	private final BookMapper bookMapper = mock(BookMapper.class);
+	private CatalogServiceImpl catalogService;
+
+	@BeforeEach
+	void setUp() {
+		catalogService = new CatalogServiceImpl(catalogVolumeRepository, googleBooks, bookMapper,
+				mock(PlatformTransactionManager.class), 2, REFRESH_AFTER);
+		when(catalogVolumeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(googleBooks.getBookByIdForImport(any())).thenAnswer(invocation -> {
+			GoogleBookItem item = new GoogleBookItem();
+			item.setId(invocation.getArgument(0));
+			return item;
+		});
+		when(bookMapper.toCatalogVolume(any())).thenAnswer(invocation ->
+				volume(invocation.<GoogleBookItem>getArgument(0).getId(), "Fresh", Duration.ZERO));
+	}
+
+	@Test
+	void recentVolumesAreServedWithoutCallingGoogle() {
+		CatalogVolumeEntity stored = volume("dune", "Stored", REFRESH_AFTER.minusDays(1));
+		when(catalogVolumeRepository.findById("dune")).thenReturn(Optional.of(stored));
+
+		assertThat(catalogService.getOrFetchVolume("dune")).isSameAs(stored);
+		verifyNoInteractions(googleBooks);
+	}
+
+	@Test
+	void volumesPastTheRefreshAgeAreReadFromGoogleAgain() {
+		when(catalogVolumeRepository.findById("dune"))
+				.thenReturn(Optional.of(volume("dune", "Stored", REFRESH_AFTER.plusDays(1))));
+
+		CatalogVolumeEntity volume = catalogService.getOrFetchVolume("dune");
+
+		assertThat(volume.getTitle()).isEqualTo("Fresh");
+		verify(catalogVolumeRepository).save(volume);
+	}
+
+	@Test
+	void theStoredVolumeIsKeptWhenTheRefreshFails() {
+		CatalogVolumeEntity stored = volume("dune", "Stored", REFRESH_AFTER.plusDays(1));
+		when(catalogVolumeRepository.findById("dune")).thenReturn(Optional.of(stored));
+		when(googleBooks.getBookByIdForImport("dune")).thenThrow(new GoogleBooksUnavailableException("down"));
+
+		assertThat(catalogService.getOrFetchVolume("dune")).isSameAs(stored);
+		verify(catalogVolumeRepository, never()).save(any());
+	}
+
+	@Test
+	void batchesFetchTheMissingAndStaleVolumesOnly() {
+		CatalogVolumeEntity recent = volume("recent", "Stored", Duration.ofDays(1));
+		CatalogVolumeEntity old = volume("old", "Stored", REFRESH_AFTER.plusDays(1));
+		when(catalogVolumeRepository.findAllById(any())).thenReturn(List.of(recent, old));
+
+		Map<String, VolumeLookup> lookups = catalogService.getOrFetchVolumes(List.of("recent", "old", "new"));
+
+		assertThat(lookups.get("recent").volume()).isSameAs(recent);
+		assertThat(lookups.get("old").volume().getTitle()).isEqualTo("Fresh");
+		assertThat(lookups.get("new").volume().getTitle()).isEqualTo("Fresh");
+		verify(googleBooks, never()).getBookByIdForImport("recent");
+		verify(googleBooks).getBookByIdForImport("old");
+		verify(googleBooks).getBookByIdForImport("new");
+	}
+
+	private static CatalogVolumeEntity volume(String googleBookId, String title, Duration age) {
+		return CatalogVolumeEntity.builder()
+				.googleBookId(googleBookId)
+				.title(title)
+				.fetchedAt(LocalDateTime.now(ZoneOffset.UTC).minus(age))
+				.build();
+	}
+
+}
@@ -0,0 +1,220 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.config.GoogleBooksResilienceConfig;
+import com.cristianml.TomeVault.dtos.google.GoogleBookItem;
+import com.cristianml.TomeVault.exceptions.BookNotFoundException;
+import com.cristianml.TomeVault.exceptions.GoogleBooksQuotaExceededException;
+import com.cristianml.TomeVault.exceptions.GoogleBooksUnavailableException;
+import com.cristianml.TomeVault.utilities.GoogleBooksQueries;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServiceUnavailable;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withTooManyRequests;
+
+class GoogleBookIntegrationServiceImplTests {
+
+	private static final String API_URL = "https://www.googleapis.com/books/v1/volumes";
+	private static final Duration STALE_TTL = Duration.ofHours(1);
+
+	// Drives every cache, so TTLs can be crossed without waiting
+	private final AtomicLong nanos = new AtomicLong();
+	private final RestTemplate restTemplate = new RestTemplate();
+	private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final Cache<String, GoogleBookItem> volumeCache = cache(Duration.ofMinutes(10));
+	private final Cache<String, List<GoogleBookItem>> searchCache = cache(Duration.ofMinutes(10));
+	private final Cache<String, GoogleBookItem> staleVolumeCache = cache(STALE_TTL);
+	private final Cache<String, List<GoogleBookItem>> staleSearchCache = cache(STALE_TTL);
+	private final Cache<String, Boolean> missingVolumeCache = cache(Duration.ofMinutes(10));
+
+	private final CircuitBreaker circuitBreaker = new GoogleBooksResilienceConfig().googleBooksCircuitBreaker(
+			50, Duration.ofSeconds(3), 20, 10, Duration.ofSeconds(30), 3, meterRegistry);
+
+	private GoogleBookIntegrationServiceImpl googleBooks;
+
+	@BeforeEach
+	void setUp() {
+		GoogleBooksRateLimiter rateLimiter = new GoogleBooksRateLimiter(1000, 60, 120, 30, 10, 0.2,
+				Duration.ofSeconds(1), Duration.ofMinutes(5), meterRegistry);
+		googleBooks = new GoogleBookIntegrationServiceImpl(restTemplate, volumeCache, searchCache, missingVolumeCache,
+				staleVolumeCache, staleSearchCache, circuitBreaker, Bulkhead.ofDefaults("googleBooks"),
+				rateLimiter, meterRegistry);
+		ReflectionTestUtils.setField(googleBooks, "apiUrl", API_URL);
+		ReflectionTestUtils.setField(googleBooks, "apiKey", "test");
+	}
+
+	@Test
+	void freshVolumesFillBothCaches() {
+		server.expect(once(), requestTo(startsWith(API_URL + "/dune")))
+				.andRespond(withSuccess("{\"id\":\"dune\",\"volumeInfo\":{\"title\":\"Dune\"}}", MediaType.APPLICATION_JSON));
+
+		GoogleBookItem volume = googleBooks.getBookById("dune");
+
+		assertThat(volume.getVolumeInfo().getTitle()).isEqualTo("Dune");
+		assertThat(volumeCache.getIfPresent("dune")).isSameAs(volume);
+		assertThat(staleVolumeCache.getIfPresent("dune")).isSameAs(volume);
+		// The second lookup is a cache hit
+		assertThat(googleBooks.getBookById("dune")).isSameAs(volume);
+		server.verify();
+	}
+
+	@Test
+	void deadIdsAreAnsweredFromTheMissingCache() {
+		server.expect(once(), requestTo(startsWith(API_URL + "/gone"))).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+		assertThatThrownBy(() -> googleBooks.getBookById("gone")).isInstanceOf(BookNotFoundException.class);
+		// With a recent 404 on record the second lookup never reaches the RestTemplate
+		assertThatThrownBy(() -> googleBooks.getBookById("gone")).isInstanceOf(BookNotFoundException.class);
+
+		assertThat(missingVolumeCache.getIfPresent("gone")).isTrue();
+		assertThat(meterRegistry.counter("google.books.missing.recorded").count()).isEqualTo(1);
+		assertThat(meterRegistry.counter("google.books.missing.absorbed").count()).isEqualTo(1);
+		server.verify();
+	}
+
+	// An outage says nothing about the ID, so the next lookup must go out again
+	@Test
+	void serverErrorsAreNotRememberedAsMissing() {
+		server.expect(once(), requestTo(startsWith(API_URL + "/dune"))).andRespond(withServiceUnavailable());
+		server.expect(once(), requestTo(startsWith(API_URL + "/dune")))
+				.andRespond(withSuccess("{\"id\":\"dune\",\"volumeInfo\":{\"title\":\"Dune\"}}", MediaType.APPLICATION_JSON));
+
+		assertThatThrownBy(() -> googleBooks.getBookById("dune")).isInstanceOf(GoogleBooksUnavailableException.class);
+		assertThat(missingVolumeCache.getIfPresent("dune")).isNull();
+
+		assertThat(googleBooks.getBookById("dune").getVolumeInfo().getTitle()).isEqualTo("Dune");
+		assertThat(meterRegistry.find("google.books.missing.recorded").counter()).isNull();
+		assertThat(meterRegistry.find("google.books.missing.absorbed").counter()).isNull();
+		server.verify();
+	}
+
+	@Test
+	void throttledLookupsAreNotRememberedAsMissing() {
+		server.expect(once(), requestTo(startsWith(API_URL + "/dune"))).andRespond(withTooManyRequests());
+
+		assertThatThrownBy(() -> googleBooks.getBookById("dune")).isInstanceOf(GoogleBooksUnavailableException.class);
+
+		assertThat(missingVolumeCache.getIfPresent("dune")).isNull();
+		assertThat(meterRegistry.find("google.books.missing.recorded").counter()).isNull();
+		server.verify();
+	}
+
+	// Serving the fallback must not make it look fresh: it stays out of the main cache and
+	// still expires when it was first stored
+	@Test
+	void staleVolumesAreServedWithoutBeingCachedAgain() {
+		GoogleBookItem stale = new GoogleBookItem();
+		stale.setId("dune");
+		staleVolumeCache.put("dune", stale);
+		nanos.addAndGet(STALE_TTL.minusMinutes(1).toNanos());
+		server.expect(once(), requestTo(startsWith(API_URL + "/dune"))).andRespond(withServiceUnavailable());
+
+		assertThat(googleBooks.getBookById("dune")).isSameAs(stale);
+
+		assertThat(volumeCache.getIfPresent("dune")).isNull();
+		nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+		assertThat(staleVolumeCache.getIfPresent("dune")).isNull();
+		server.verify();
+	}
+
+	@Test
+	void staleSearchesAreServedWithoutBeingCachedAgain() {
+		List<GoogleBookItem> stale = List.of(new GoogleBookItem());
+		String cacheKey = GoogleBooksQueries.searchKey(GoogleBooksQueries.normalize("dune"), GoogleBooksQueries.SEARCH_MAX_RESULTS);
+		staleSearchCache.put(cacheKey, stale);
+		nanos.addAndGet(STALE_TTL.minusMinutes(1).toNanos());
+		server.expect(once(), requestTo(startsWith(API_URL))).andRespond(withServiceUnavailable());
+
+		assertThat(googleBooks.searchBooks("dune")).isSameAs(stale);
+
+		assertThat(searchCache.getIfPresent(cacheKey)).isNull();
+		nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+		assertThat(staleSearchCache.getIfPresent(cacheKey)).isNull();
+		server.verify();
+	}
+
+	// Only the cache key is case-folded; Google gets the query as typed, so "OR" stays an operator
+	@Test
+	void searchesSendTheQueryCaseButShareCaseVariantsInTheCache() {
+		server.expect(once(), requestTo(containsString("q=Dune%20OR%20Herbert&")))
+				.andRespond(withSuccess("{\"items\":[]}", MediaType.APPLICATION_JSON));
+		server.expect(once(), requestTo(containsString("q=dune%20or%20herbert&")))
+				.andRespond(withSuccess("{\"items\":[]}", MediaType.APPLICATION_JSON));
+
+		List<GoogleBookItem> results = googleBooks.searchBooks("  Dune   OR Herbert ");
+
+		assertThat(googleBooks.searchBooks("DUNE OR herbert")).isSameAs(results);
+		// A lowercase "or" is a plain term to Google, so it is a different search
+		googleBooks.searchBooks("dune or herbert");
+		server.verify();
+	}
+
+	// With the breaker open nothing leaves, so nothing is charged to the caller's or the daily quota
+	@Test
+	void callsTheBreakerTurnsAwayKeepTheirQuota() {
+		GoogleBookItem stale = new GoogleBookItem();
+		stale.setId("dune");
+		staleVolumeCache.put("dune", stale);
+		circuitBreaker.transitionToForcedOpenState();
+
+		// More than the anonymous caller's 10 calls per minute
+		for (int i = 0; i < 20; i++) {
+			assertThat(googleBooks.getBookById("dune")).isSameAs(stale);
+		}
+		assertThat(meterRegistry.find("google.books.ratelimit.rejected").counter()).isNull();
+
+		circuitBreaker.transitionToClosedState();
+		server.expect(once(), requestTo(startsWith(API_URL + "/dune")))
+				.andRespond(withSuccess("{\"id\":\"dune\",\"volumeInfo\":{\"title\":\"Dune\"}}", MediaType.APPLICATION_JSON));
+		assertThat(googleBooks.getBookById("dune")).isNotSameAs(stale);
+		server.verify();
+	}
+
+	@Test
+	void quotaRejectionsDontCountForTheBreaker() {
+		server.expect(times(10), requestTo(startsWith(API_URL)))
+				.andRespond(withSuccess("{\"items\":[]}", MediaType.APPLICATION_JSON));
+		for (int i = 0; i < 10; i++) {
+			googleBooks.searchBooks("query " + i);
+		}
+
+		assertThatThrownBy(() -> googleBooks.searchBooks("one too many"))
+				.isInstanceOf(GoogleBooksQuotaExceededException.class);
+		assertThat(circuitBreaker.getMetrics().getNumberOfBufferedCalls()).isEqualTo(10);
+		assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+		server.verify();
+	}
+
+	private <V> Cache<String, V> cache(Duration ttl) {
+		return Caffeine.newBuilder()
+				.expireAfterWrite(ttl)
+				.ticker(nanos::get)
+				.build();
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.PostgresIntegrationTest;
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.repositories.PersmissionRepository;
+import com.cristianml.TomeVault.repositories.RoleRepository;
+import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.security.dtos.AuthLoginRequest;
+import com.cristianml.TomeVault.security.dtos.AuthResponse;
+import com.cristianml.TomeVault.security.entities.PermissionEntity;
+import com.cristianml.TomeVault.security.entities.PermissionEnum;
+import com.cristianml.TomeVault.security.entities.RoleEntity;
+import com.cristianml.TomeVault.security.entities.RoleEnum;
+import com.cristianml.TomeVault.security.services.PasswordHashingService;
+import com.cristianml.TomeVault.services.IAuthService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Locks in the single-statement user resolution: username or email, any case, with roles
+// and permissions in the same select.
+class LoginStatementCountTests extends PostgresIntegrationTest {
+
+	private static final String PASSWORD = "Secret123!";
+
+	@Autowired
+	private IAuthService authService;
+	@Autowired
+	private UserDetailsService userDetailsService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private RoleRepository roleRepository;
+	@Autowired
+	private PersmissionRepository permissionRepository;
+	@Autowired
+	private PasswordHashingService passwordHashingService;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private UserEntity user;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		PermissionEntity read = permissionRepository.save(PermissionEntity.builder().permissionEnum(PermissionEnum.READ_BOOK).build());
+		PermissionEntity add = permissionRepository.save(PermissionEntity.builder().permissionEnum(PermissionEnum.ADD_BOOK).build());
+		RoleEntity role = roleRepository.save(RoleEntity.builder().roleEnum(RoleEnum.USER).permissionList(Set.of(read, add)).build());
+
+		String name = "Login" + UUID.randomUUID().toString().substring(0, 8);
+		user = new UserEntity();
+		user.setUsername(name);
+		user.setEmail(name + "@example.com");
+		user.setPassword(passwordHashingService.encode(PASSWORD));
+		user.setEnabled(true);
+		user.setAccountNonExpired(true);
+		user.setAccountNonLocked(true);
+		user.setCredentialsNonExpired(true);
+		user.setRoleList(Set.of(role));
+		user = userRepository.save(user);
+	}
+
+	@Test
+	void resolvingALoginIsOneStatementIncludingAuthorities() {
+		for (String login : new String[]{user.getUsername().toUpperCase(), user.getEmail().toLowerCase()}) {
+			statistics.clear();
+
+			UserDetails details = userDetailsService.loadUserByUsername(login);
+
+			assertThat(details.getAuthorities()).extracting(Object::toString)
+					.containsExactlyInAnyOrder("ROLE_USER", "READ_BOOK", "ADD_BOOK");
+			assertThat(statistics.getPrepareStatementCount()).as("statements for %s", login).isEqualTo(1);
+		}
+	}
+
+	// The user select, then the refresh token: expired ones of the user deleted, the new one inserted
+	@Test
+	void loginRunsThreeStatements() {
+		statistics.clear();
+
+		AuthResponse response = authService.loginUser(new AuthLoginRequest(user.getUsername(), PASSWORD));
+
+		assertThat(response.getRefreshToken()).isNotNull();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.PostgresIntegrationTest;
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.exceptions.ResourceNotFoundException;
+import com.cristianml.TomeVault.mappers.BookMapper;
+import com.cristianml.TomeVault.repositories.BookBatchRepository;
+import com.cristianml.TomeVault.repositories.BookRepository;
+import com.cristianml.TomeVault.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// A tap that fills the buffer flushes it; the flushed deltas must survive that tap failing,
+// even when the caller runs it inside a transaction that is rolled back.
+class ReadCountBufferRollbackTests extends PostgresIntegrationTest {
+
+	@Autowired
+	private BookRepository bookRepository;
+	@Autowired
+	private BookBatchRepository bookBatchRepository;
+	@Autowired
+	private BookMapper bookMapper;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private ReadCountBuffer buffer;
+	private UserEntity user;
+	private Long bookId;
+
+	@BeforeEach
+	void setUp() {
+		// Room for one book, without the background thread
+		buffer = new ReadCountBuffer(bookRepository, bookBatchRepository, bookMapper, new SimpleMeterRegistry(),
+				transactionManager, false, Duration.ofSeconds(2), 1);
+
+		String name = "Tapper" + UUID.randomUUID().toString().substring(0, 8);
+		user = new UserEntity();
+		user.setUsername(name);
+		user.setPassword(name);
+		user.setEnabled(true);
+		user = userRepository.save(user);
+		bookId = jdbcTemplate.queryForObject("INSERT INTO books (google_book_id, title, user_id, added_at, read_count, " +
+				"is_active) VALUES ('g', 'Dune', ?, DATE '2024-01-01', 3, true) RETURNING id", Long.class, user.getId());
+	}
+
+	@Test
+	void flushedDeltasSurviveAFailingTapAndItsRollback() {
+		buffer.increment(bookId, user);
+		buffer.increment(bookId, user);
+
+		TransactionTemplate caller = new TransactionTemplate(transactionManager);
+		assertThatThrownBy(() -> caller.executeWithoutResult(status -> buffer.increment(-1L, user)))
+				.isInstanceOf(ResourceNotFoundException.class);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT read_count FROM books WHERE id = ?", Integer.class, bookId))
+				.isEqualTo(5);
+		assertThat(buffer.increment(bookId, user).getReadCount()).isEqualTo(6);
+	}
+
+}
@@ -0,0 +1,166 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.dtos.responses.BookResponseDTO;
+import com.cristianml.TomeVault.entities.BookEntity;
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.exceptions.ResourceNotFoundException;
+import com.cristianml.TomeVault.mappers.BookMapper;
+import com.cristianml.TomeVault.repositories.BookBatchRepository;
+import com.cristianml.TomeVault.repositories.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ReadCountBufferTests {
+
+	private static final long BOOK_ID = 10L;
+
+	private final BookRepository bookRepository = mock(BookRepository.class);
+	private final BookBatchRepository bookBatchRepository = mock(BookBatchRepository.class);
+	private final BookMapper bookMapper = mock(BookMapper.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private ReadCountBuffer buffer;
+	private UserEntity owner;
+
+	@BeforeEach
+	void setUp() {
+		// Disabled only means no background thread, flushes are run by hand
+		buffer = new ReadCountBuffer(bookRepository, bookBatchRepository, bookMapper, new SimpleMeterRegistry(),
+				transactionManager, false, Duration.ofSeconds(2), 100);
+		owner = new UserEntity();
+		owner.setId(1L);
+		when(bookMapper.toResponseDTO(any(BookEntity.class))).thenAnswer(invocation -> {
+			BookEntity book = invocation.getArgument(0);
+			return new BookResponseDTO(book.getId(), "g", "Dune", null, null, null, List.of(),
+					null, null, book.getReadCount(), true);
+		});
+	}
+
+	@Test
+	void tapsAreServedFromMemoryOnTopOfTheStoredValue() {
+		storedReadCount(3);
+
+		assertThat(buffer.increment(BOOK_ID, owner).getReadCount()).isEqualTo(4);
+		assertThat(buffer.increment(BOOK_ID, owner).getReadCount()).isEqualTo(5);
+		assertThat(buffer.decrement(BOOK_ID, owner).getReadCount()).isEqualTo(4);
+
+		verify(bookRepository, times(1)).findById(BOOK_ID);
+		verifyNoInteractions(bookBatchRepository);
+	}
+
+	// The floor applies to stored value plus pending delta, not to either one alone
+	@Test
+	void decrementsStopAtZeroAgainstTheMergedValue() {
+		storedReadCount(1);
+
+		buffer.increment(BOOK_ID, owner);
+		assertThat(buffer.decrement(BOOK_ID, owner).getReadCount()).isEqualTo(1);
+		assertThat(buffer.decrement(BOOK_ID, owner).getReadCount()).isZero();
+		assertThatThrownBy(() -> buffer.decrement(BOOK_ID, owner)).isInstanceOf(IllegalArgumentException.class);
+
+		// The rejected tap left nothing behind: the net delta is -1
+		when(bookBatchRepository.addToReadCounts(any())).thenReturn(Map.of(BOOK_ID, 0));
+		buffer.flush();
+		verify(bookBatchRepository).addToReadCounts(Map.of(BOOK_ID, -1));
+	}
+
+	@Test
+	void otherUsersBooksAreNotFound() {
+		storedReadCount(3);
+		UserEntity stranger = new UserEntity();
+		stranger.setId(2L);
+
+		assertThatThrownBy(() -> buffer.increment(BOOK_ID, stranger)).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	// A fully written book leaves the buffer, so the next tap starts from what Postgres holds,
+	// including changes made by other instances
+	@Test
+	void flushWritesPendingDeltasAndDropsSettledBooks() {
+		storedReadCount(3);
+		buffer.increment(BOOK_ID, owner);
+		buffer.increment(BOOK_ID, owner);
+		when(bookBatchRepository.addToReadCounts(Map.of(BOOK_ID, 2))).thenReturn(Map.of(BOOK_ID, 8));
+
+		buffer.flush();
+		storedReadCount(8);
+
+		assertThat(buffer.increment(BOOK_ID, owner).getReadCount()).isEqualTo(9);
+		verify(bookRepository, times(2)).findById(BOOK_ID);
+	}
+
+	// Taps landing while a flush runs stay pending on top of the value the flush returned
+	@Test
+	void flushRebasesTapsThatArriveMeanwhile() {
+		storedReadCount(3);
+		buffer.increment(BOOK_ID, owner);
+		buffer.increment(BOOK_ID, owner);
+		when(bookBatchRepository.addToReadCounts(Map.of(BOOK_ID, 2))).thenAnswer(invocation -> {
+			buffer.increment(BOOK_ID, owner);
+			return Map.of(BOOK_ID, 5);
+		});
+
+		buffer.flush();
+
+		assertThat(buffer.increment(BOOK_ID, owner).getReadCount()).isEqualTo(7);
+		verify(bookRepository, times(1)).findById(BOOK_ID);
+
+		doReturn(Map.of(BOOK_ID, 7)).when(bookBatchRepository).addToReadCounts(Map.of(BOOK_ID, 2));
+		buffer.flush();
+		verify(bookBatchRepository, times(2)).addToReadCounts(Map.of(BOOK_ID, 2));
+	}
+
+	@Test
+	void deltasOfRemovedBooksAreDropped() {
+		storedReadCount(3);
+		buffer.increment(BOOK_ID, owner);
+		when(bookBatchRepository.addToReadCounts(any())).thenReturn(Map.of());
+
+		buffer.flush();
+		buffer.flush();
+
+		verify(bookBatchRepository).addToReadCounts(Map.of(BOOK_ID, 1));
+		verify(bookBatchRepository).addToReadCounts(Map.of());
+	}
+
+	// A full buffer is flushed by the next tap to a new book, in a transaction of its own that is
+	// committed before that tap can fail
+	@Test
+	void flushTriggeredByATapCommitsEvenWhenTheTapFails() {
+		buffer = new ReadCountBuffer(bookRepository, bookBatchRepository, bookMapper, new SimpleMeterRegistry(),
+				transactionManager, false, Duration.ofSeconds(2), 1);
+		storedReadCount(3);
+		buffer.increment(BOOK_ID, owner);
+		when(bookBatchRepository.addToReadCounts(Map.of(BOOK_ID, 1))).thenReturn(Map.of(BOOK_ID, 4));
+		when(bookRepository.findById(99L)).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> buffer.increment(99L, owner)).isInstanceOf(ResourceNotFoundException.class);
+
+		verify(bookBatchRepository).addToReadCounts(Map.of(BOOK_ID, 1));
+		verify(transactionManager).getTransaction(argThat(definition ->
+				definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+		verify(transactionManager, atLeastOnce()).commit(any());
+	}
+
+	private void storedReadCount(int readCount) {
+		BookEntity book = new BookEntity();
+		book.setId(BOOK_ID);
+		book.setReadCount(readCount);
+		book.setUser(owner);
+		when(bookRepository.findById(BOOK_ID)).thenReturn(Optional.of(book));
+	}
+
+}
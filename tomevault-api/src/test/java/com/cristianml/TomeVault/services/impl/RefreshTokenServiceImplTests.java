@@ -0,0 +1,142 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.PostgresIntegrationTest;
+import com.cristianml.TomeVault.entities.UserEntity;
+import com.cristianml.TomeVault.exceptions.InvalidRefreshTokenException;
+import com.cristianml.TomeVault.repositories.UserRepository;
+import com.cristianml.TomeVault.services.IRefreshTokenService;
+import com.cristianml.TomeVault.services.IRefreshTokenService.Rotation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RefreshTokenServiceImplTests extends PostgresIntegrationTest {
+
+	@Autowired
+	private IRefreshTokenService refreshTokenService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private UserEntity user;
+
+	@BeforeEach
+	void setUp() {
+		String name = "Refresher" + UUID.randomUUID().toString().substring(0, 8);
+		user = new UserEntity();
+		user.setUsername(name);
+		user.setPassword(name);
+		user.setEnabled(true);
+		user = userRepository.save(user);
+	}
+
+	@Test
+	void rotationHandsOutASuccessorAndRetiresThePresentedToken() {
+		String issued = refreshTokenService.issue(user);
+
+		Rotation rotation = refreshTokenService.rotate(issued);
+
+		assertThat(rotation.user().getId()).isEqualTo(user.getId());
+		assertThat(rotation.refreshToken()).isNotEqualTo(issued);
+		assertThat(refreshTokenService.rotate(rotation.refreshToken()).refreshToken()).isNotNull();
+	}
+
+	// A rotated token showing up again means a copy leaked: neither copy may keep the session
+	@Test
+	void reusingARotatedTokenRevokesTheWholeFamily() {
+		String issued = refreshTokenService.issue(user);
+		String successor = refreshTokenService.rotate(issued).refreshToken();
+		String otherDevice = refreshTokenService.issue(user);
+
+		assertRejected(issued, "reused");
+		assertRejected(successor, "revoked");
+		// Other logins of the same user are separate families
+		assertThat(refreshTokenService.rotate(otherDevice).refreshToken()).isNotNull();
+	}
+
+	@Test
+	void concurrentExchangesOfOneTokenLetOnlyOneThrough() {
+		String issued = refreshTokenService.issue(user);
+		CountDownLatch start = new CountDownLatch(1);
+
+		List<CompletableFuture<Boolean>> exchanges = IntStream.range(0, 4)
+				.mapToObj(attempt -> CompletableFuture.supplyAsync(() -> {
+					try {
+						start.await();
+						refreshTokenService.rotate(issued);
+						return true;
+					} catch (InvalidRefreshTokenException e) {
+						return false;
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return false;
+					}
+				}))
+				.toList();
+		start.countDown();
+
+		assertThat(exchanges.stream().map(CompletableFuture::join).filter(Boolean::booleanValue)).hasSize(1);
+	}
+
+	@Test
+	void disabledUsersAreRefusedAndTheirFamilyRevoked() {
+		String issued = refreshTokenService.issue(user);
+		jdbcTemplate.update("UPDATE users SET enabled = false WHERE id = ?", user.getId());
+
+		assertRejected(issued, "account_inactive");
+		assertThat(revokedTokensOfUser()).isEqualTo(1);
+	}
+
+	@Test
+	void softDeletedUsersAreRefused() {
+		String issued = refreshTokenService.issue(user);
+		jdbcTemplate.update("UPDATE users SET deleted = true, deleted_at = now() WHERE id = ?", user.getId());
+
+		assertRejected(issued, "account_inactive");
+		assertThat(revokedTokensOfUser()).isEqualTo(1);
+	}
+
+	// The tokens go with the row, so the token is simply unknown
+	@Test
+	void hardDeletedUsersAreRefused() {
+		String issued = refreshTokenService.issue(user);
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+
+		assertRejected(issued, "unknown");
+	}
+
+	@Test
+	void expiredAndRevokedTokensAreRefused() {
+		String expired = refreshTokenService.issue(user);
+		jdbcTemplate.update("UPDATE refresh_tokens SET expires_at = now() - interval '1 minute' WHERE user_id = ?",
+				user.getId());
+		assertRejected(expired, "expired");
+
+		String revoked = refreshTokenService.issue(user);
+		refreshTokenService.revokeAll(user.getId());
+		assertRejected(revoked, "revoked");
+	}
+
+	private void assertRejected(String refreshToken, String reason) {
+		assertThatThrownBy(() -> refreshTokenService.rotate(refreshToken))
+				.isInstanceOf(InvalidRefreshTokenException.class)
+				.hasMessageEndingWith(reason);
+	}
+
+	private Integer revokedTokensOfUser() {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM refresh_tokens WHERE user_id = ? AND revoked",
+				Integer.class, user.getId());
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.cristianml.TomeVault.services.impl;
+
+import com.cristianml.TomeVault.entities.CatalogVolumeEntity;
+import com.cristianml.TomeVault.exceptions.ResourceNotFoundException;
+import com.cristianml.TomeVault.exceptions.ThumbnailUnavailableException;
+import com.cristianml.TomeVault.repositories.CatalogVolumeRepository;
+import com.cristianml.TomeVault.services.IThumbnailService.ThumbnailFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withResourceNotFound;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ThumbnailServiceImplTests {
+
+	private static final String BOOK_ID = "dune";
+	private static final String COVER_URL = "https://books.google.com/books/content?id=dune";
+	private static final int MAX_IMAGE_BYTES = 1024;
+
+	@TempDir
+	Path cacheDir;
+
+	private final CatalogVolumeRepository catalogVolumeRepository = mock(CatalogVolumeRepository.class);
+	private final RestTemplate restTemplate = new RestTemplate();
+	private MockRestServiceServer server;
+	private ThumbnailServiceImpl thumbnailService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = MockRestServiceServer.bindTo(restTemplate).build();
+		thumbnailService = thumbnailService(1 << 20, Duration.ofMinutes(1));
+		// Google still hands out http:// links
+		catalogVolume(BOOK_ID, COVER_URL.replace("https://", "http://"));
+	}
+
+	@Test
+	void coversAreStoredUnderTheirContentHash() throws Exception {
+		byte[] image = new byte[MAX_IMAGE_BYTES];
+		server.expect(requestTo(COVER_URL)).andRespond(withSuccess(image, MediaType.IMAGE_PNG));
+
+		ThumbnailFile file = thumbnailService.getThumbnail(BOOK_ID);
+
+		assertThat(file.size()).isEqualTo(MAX_IMAGE_BYTES);
+		assertThat(file.contentType()).isEqualTo(MediaType.IMAGE_PNG_VALUE);
+		assertThat(Files.readAllBytes(file.path())).isEqualTo(image);
+		// Served from disk from now on
+		assertThat(thumbnailService.getThumbnail(BOOK_ID).contentHash()).isEqualTo(file.contentHash());
+		server.verify();
+	}
+
+	@Test
+	void aDeclaredLengthOverTheLimitIsRefusedWithoutReadingTheBody() {
+		ByteArrayInputStream body = new ByteArrayInputStream(new byte[MAX_IMAGE_BYTES * 4]);
+		server.expect(requestTo(COVER_URL)).andRespond(withSuccess()
+				.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(MAX_IMAGE_BYTES * 4))
+				.body(new InputStreamResource(body)));
+
+		assertThatThrownBy(() -> thumbnailService.getThumbnail(BOOK_ID)).isInstanceOf(ResourceNotFoundException.class);
+		assertThat(body.available()).isEqualTo(MAX_IMAGE_BYTES * 4);
+	}
+
+	@Test
+	void anUndeclaredLengthStopsBeingReadPastTheLimit() {
+		ByteArrayInputStream body = new ByteArrayInputStream(new byte[MAX_IMAGE_BYTES * 4]);
+		server.expect(requestTo(COVER_URL)).andRespond(withSuccess().body(new InputStreamResource(body)));
+
+		assertThatThrownBy(() -> thumbnailService.getThumbnail(BOOK_ID)).isInstanceOf(ResourceNotFoundException.class);
+		assertThat(body.available()).isEqualTo(MAX_IMAGE_BYTES * 3 - 1);
+	}
+
+	// The endpoint is public: anything outside the catalog is not fetched at all
+	@Test
+	void volumesOutsideTheCatalogAreNotFetched() {
+		when(catalogVolumeRepository.findById("unknown")).thenReturn(Optional.empty());
+
+		assertThatThrownBy(() -> thumbnailService.getThumbnail("unknown")).isInstanceOf(ResourceNotFoundException.class);
+		server.verify();
+	}
+
+	@Test
+	void googleFailuresAreUnavailableAndMissingCoversNotFound() {
+		server.expect(requestTo(COVER_URL)).andRespond(withServerError());
+		server.expect(requestTo(COVER_URL)).andRespond(withResourceNotFound());
+
+		assertThatThrownBy(() -> thumbnailService.getThumbnail(BOOK_ID)).isInstanceOf(ThumbnailUnavailableException.class);
+		assertThatThrownBy(() -> thumbnailService.getThumbnail(BOOK_ID)).isInstanceOf(ResourceNotFoundException.class);
+		server.verify();
+	}
+
+	// A response may already hold the path of a blob being evicted, so it is deleted later
+	@Test
+	void evictedBlobsStayOnDiskForTheGracePeriod() throws Exception {
+		thumbnailService = thumbnailService(MAX_IMAGE_BYTES, Duration.ofHours(1));
+		ThumbnailFile dune = cacheTwoCovers();
+
+		assertThat(dune.path()).exists();
+		// No longer cached: fetched again, reusing the file still on disk
+		server.expect(requestTo(COVER_URL)).andRespond(withSuccess(new byte[MAX_IMAGE_BYTES], MediaType.IMAGE_PNG));
+		assertThat(thumbnailService.getThumbnail(BOOK_ID).path()).isEqualTo(dune.path()).exists();
+		server.verify();
+	}
+
+	@Test
+	void evictedBlobsAreDeletedOnceTheGracePeriodIsOver() throws Exception {
+		thumbnailService = thumbnailService(MAX_IMAGE_BYTES, Duration.ZERO);
+
+		assertThat(cacheTwoCovers().path()).doesNotExist();
+	}
+
+	// Caches BOOK_ID's cover, then a second one that evicts it
+	private ThumbnailFile cacheTwoCovers() {
+		String otherUrl = "https://books.google.com/books/content?id=messiah";
+		catalogVolume("messiah", otherUrl);
+		byte[] other = new byte[MAX_IMAGE_BYTES];
+		other[0] = 1;
+		server.expect(requestTo(COVER_URL)).andRespond(withSuccess(new byte[MAX_IMAGE_BYTES], MediaType.IMAGE_PNG));
+		server.expect(requestTo(otherUrl)).andRespond(withSuccess(other, MediaType.IMAGE_PNG));
+
+		ThumbnailFile dune = thumbnailService.getThumbnail(BOOK_ID);
+		thumbnailService.getThumbnail("messiah");
+		server.verify();
+		server.reset();
+		return dune;
+	}
+
+	private ThumbnailServiceImpl thumbnailService(long maxCacheBytes, Duration evictionGrace) throws Exception {
+		ThumbnailServiceImpl service = new ThumbnailServiceImpl(catalogVolumeRepository, restTemplate,
+				new SimpleMeterRegistry(), cacheDir, maxCacheBytes, MAX_IMAGE_BYTES, evictionGrace);
+		service.loadIndex();
+		return service;
+	}
+
+	private void catalogVolume(String googleBookId, String thumbnail) {
+		CatalogVolumeEntity volume = new CatalogVolumeEntity();
+		volume.setGoogleBookId(googleBookId);
+		volume.setThumbnail(thumbnail);
+		when(catalogVolumeRepository.findById(googleBookId)).thenReturn(Optional.of(volume));
+	}
+
+}
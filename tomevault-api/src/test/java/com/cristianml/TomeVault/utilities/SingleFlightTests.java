@@ -0,0 +1,120 @@
+package com.cristianml.TomeVault.utilities;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+	private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void concurrentCallersForAKeyShareOneLoad() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> leader = executor.submit(() -> singleFlight.execute("dune", blockingLoader(release, () -> "value")));
+		awaitLoads(1);
+		Future<String> follower = executor.submit(() -> singleFlight.execute("dune", countingLoader(() -> "other")));
+		awaitCoalesced(1);
+
+		release.countDown();
+
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+		assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void differentKeysDontWaitOnEachOther() {
+		assertThat(singleFlight.execute("a", countingLoader(() -> "A"))).isEqualTo("A");
+		assertThat(singleFlight.execute("b", countingLoader(() -> "B"))).isEqualTo("B");
+		assertThat(loads).hasValue(2);
+		assertThat(singleFlight.getCoalescedCount()).isZero();
+	}
+
+	@Test
+	void aFailureReachesEveryWaiter() throws Exception {
+		IllegalStateException failure = new IllegalStateException("upstream down");
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> leader = executor.submit(() -> singleFlight.execute("dune", blockingLoader(release, () -> {
+			throw failure;
+		})));
+		awaitLoads(1);
+		Future<String> follower = executor.submit(() -> singleFlight.execute("dune", countingLoader(() -> "other")));
+		awaitCoalesced(1);
+
+		release.countDown();
+
+		for (Future<String> future : List.of(leader, follower)) {
+			assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+					.isInstanceOf(ExecutionException.class)
+					.cause().isSameAs(failure);
+		}
+		assertThat(loads).hasValue(1);
+	}
+
+	// Neither a result nor a failure outlives its flight, the next call loads again
+	@Test
+	void completedFlightsAreNotCached() {
+		assertThatThrownBy(() -> singleFlight.execute("dune", countingLoader(() -> {
+			throw new IllegalStateException("upstream down");
+		}))).isInstanceOf(IllegalStateException.class);
+
+		assertThat(singleFlight.execute("dune", countingLoader(() -> "first"))).isEqualTo("first");
+		assertThat(singleFlight.execute("dune", countingLoader(() -> "second"))).isEqualTo("second");
+		assertThat(loads).hasValue(3);
+	}
+
+	private Supplier<String> countingLoader(Supplier<String> result) {
+		return () -> {
+			loads.incrementAndGet();
+			return result.get();
+		};
+	}
+
+	private Supplier<String> blockingLoader(CountDownLatch release, Supplier<String> result) {
+		return countingLoader(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return result.get();
+		});
+	}
+
+	private void awaitLoads(int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (loads.get() < expected && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertThat(loads).hasValue(expected);
+	}
+
+	private void awaitCoalesced(long expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (singleFlight.getCoalescedCount() < expected && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertThat(singleFlight.getCoalescedCount()).isEqualTo(expected);
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.cristianml.TomeVault.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTests {
+
+	// Long enough that no slot rolls over while a test runs
+	private static final Duration HOUR = Duration.ofHours(1);
+
+	@Test
+	void countsEventsInsideTheWindow() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(HOUR, 1);
+		for (int i = 0; i < 5; i++) {
+			counter.increment();
+		}
+
+		assertThat(counter.count()).isEqualTo(5);
+		assertThat(counter.slotDuration()).isEqualTo(HOUR);
+	}
+
+	@Test
+	void eventsOlderThanTheWindowDropOut() throws InterruptedException {
+		SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMillis(100), 2);
+		counter.increment();
+		counter.increment();
+
+		Thread.sleep(250);
+
+		assertThat(counter.count()).isZero();
+	}
+
+	// A slot from an earlier epoch is reset by the next increment, not added to
+	@Test
+	void staleSlotsStartOverInsteadOfAccumulating() throws InterruptedException {
+		SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMillis(100), 1);
+		counter.increment();
+		counter.increment();
+		counter.increment();
+
+		Thread.sleep(250);
+		counter.increment();
+
+		assertThat(counter.count()).isEqualTo(1);
+	}
+
+	// The count shares its long with the epoch: a full slot stays full instead of carrying
+	// into the epoch bits, which would make the slot look stale
+	@Test
+	void slotCountSaturatesWithoutCorruptingTheEpoch() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(HOUR, 1);
+		long maxPerSlot = (1L << 20) - 1;
+		for (long i = 0; i < maxPerSlot + 10; i++) {
+			counter.increment();
+		}
+
+		assertThat(counter.count()).isEqualTo(maxPerSlot);
+		counter.increment();
+		assertThat(counter.count()).isEqualTo(maxPerSlot);
+	}
+
+	@Test
+	void concurrentIncrementsAreNotLost() throws Exception {
+		SlidingWindowCounter counter = new SlidingWindowCounter(HOUR, 15);
+		int threads = 8;
+		int perThread = 10_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < perThread; i++) {
+						counter.increment();
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(counter.count()).isEqualTo((long) threads * perThread);
+	}
+
+}